@@ -0,0 +1,79 @@
+package io.confluent.examples.datacontract.benchmarks;
+
+import io.confluent.examples.datacontract.datagen.SalesDataGen;
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.examples.datacontract.utils.LocalSchemaRegistry;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KafkaAvroSerializer} against a mock Schema Registry, with and without the {@code Encrypt_PII}
+ * rule, so the cost of field-level encryption of {@code cc_number} can be read off the difference.
+ * {@link #generateAndSerialize} measures the full per-record path of {@code ProducerApp} minus the network.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AvroSerializerBenchmark {
+
+    private static final String TOPIC = "payments";
+
+    @Param({"none", "encrypt"})
+    public String rules;
+
+    private String scope;
+    private KafkaAvroSerializer serializer;
+    private SalesDataGen generator;
+    private Sale sale;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        scope = "bench-" + rules + "-" + System.nanoTime();
+        LocalSchemaRegistry.register(scope, LocalSchemaRegistry.PAYMENTS_SUBJECT,
+                LocalSchemaRegistry.paymentsSchema("encrypt".equals(rules), false));
+
+        serializer = new KafkaAvroSerializer();
+        serializer.configure(LocalSchemaRegistry.serializerConfig(scope), false);
+
+        generator = new SalesDataGen(42L);
+        sale = generator.nextSale(false);
+        // First call resolves the schema and, with encryption, creates the KEK/DEK
+        serializer.serialize(TOPIC, Sale.newBuilder(sale).build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializer.close();
+        LocalSchemaRegistry.drop(scope);
+    }
+
+    /**
+     * Serializes a shallow copy each time in case a transform rule rewrites fields in place.
+     */
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, Sale.newBuilder(sale).build());
+    }
+
+    @Benchmark
+    public byte[] generateAndSerialize() {
+        return serializer.serialize(TOPIC, generator.nextSale(false));
+    }
+}
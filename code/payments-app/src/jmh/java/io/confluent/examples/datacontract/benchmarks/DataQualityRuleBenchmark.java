@@ -0,0 +1,89 @@
+package io.confluent.examples.datacontract.benchmarks;
+
+import io.confluent.examples.datacontract.datagen.SalesDataGen;
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.examples.datacontract.utils.LocalSchemaRegistry;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@code validateConfirmationCode} CEL rule in {@link KafkaAvroSerializer}, against a mock
+ * Schema Registry. {@code invalidRate=none} is the baseline without a data contract; otherwise the rule
+ * is registered and that share of records fails it, so {@code 0} measures a passing rule and higher
+ * rates add the cost of failing, including building the exception. The rate and the rule are one
+ * parameter because the rate means nothing without the rule.
+ *
+ * Each invocation serializes the next record of a fixed ring with exactly that share of invalid records.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DataQualityRuleBenchmark {
+
+    private static final String TOPIC = "payments";
+    private static final int RING_SIZE = 1000;
+
+    @Param({"none", "0", "0.01", "0.2", "1"})
+    public String invalidRate;
+
+    private String scope;
+    private KafkaAvroSerializer serializer;
+    private Sale[] ring;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        boolean rules = !"none".equals(invalidRate);
+        double rate = rules ? Double.parseDouble(invalidRate) : 0;
+        scope = "bench-dq-" + invalidRate + "-" + System.nanoTime();
+        LocalSchemaRegistry.register(scope, LocalSchemaRegistry.PAYMENTS_SUBJECT,
+                LocalSchemaRegistry.paymentsSchema(false, rules));
+
+        serializer = new KafkaAvroSerializer();
+        serializer.configure(LocalSchemaRegistry.serializerConfig(scope), false);
+
+        SalesDataGen generator = new SalesDataGen(42L);
+        ring = new Sale[RING_SIZE];
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring[i] = generator.nextSale(generator.nextInvalid(rate));
+        }
+        // First call resolves the schema and compiles the CEL expression
+        serializer.serialize(TOPIC, generator.nextSale(false));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializer.close();
+        LocalSchemaRegistry.drop(scope);
+    }
+
+    @Benchmark
+    public void serialize(Blackhole bh) {
+        Sale sale = ring[next];
+        next = next + 1 == RING_SIZE ? 0 : next + 1;
+        try {
+            bh.consume(serializer.serialize(TOPIC, sale));
+        } catch (SerializationException e) {
+            bh.consume(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.confluent.examples.datacontract.benchmarks;
+
+import io.confluent.examples.datacontract.datagen.SalesDataGen;
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plain Avro encoding of a {@link Sale}, without Schema Registry or data contract rules.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SaleEncodingBenchmark {
+
+    private Sale sale;
+    private SpecificDatumWriter<Sale> writer;
+    private ByteArrayOutputStream out;
+    private BinaryEncoder encoder;
+
+    @Setup
+    public void setup() {
+        sale = new SalesDataGen(42L).nextSale(false);
+        writer = new SpecificDatumWriter<>(Sale.class);
+        out = new ByteArrayOutputStream(256);
+    }
+
+    @Benchmark
+    public ByteBuffer toByteBuffer() throws IOException {
+        return sale.toByteBuffer();
+    }
+
+    @Benchmark
+    public ByteBuffer messageEncoder() throws IOException {
+        return Sale.getEncoder().encode(sale);
+    }
+
+    /**
+     * Reused writer/encoder/buffer, the same shape of work the Avro serializer does per record.
+     */
+    @Benchmark
+    public int datumWriterReused() throws IOException {
+        out.reset();
+        encoder = EncoderFactory.get().directBinaryEncoder(out, encoder);
+        writer.write(sale, encoder);
+        return out.size();
+    }
+}
@@ -0,0 +1,52 @@
+package io.confluent.examples.datacontract.benchmarks;
+
+import io.confluent.examples.datacontract.datagen.SalesDataGen;
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of producing one {@link Sale} in {@link SalesDataGen}, before any serialization.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SaleGenerationBenchmark {
+
+    private SalesDataGen generator;
+    private Sale reuse;
+
+    @Setup
+    public void setup() {
+        generator = new SalesDataGen(42L);
+        reuse = generator.nextSale(false);
+    }
+
+    @Benchmark
+    public Sale staticGetSale() {
+        return SalesDataGen.getSale(0);
+    }
+
+    @Benchmark
+    public Sale nextSale() {
+        return generator.nextSale(false);
+    }
+
+    @Benchmark
+    public Sale nextSaleReusingRecord() {
+        return generator.nextSale(reuse, false);
+    }
+}
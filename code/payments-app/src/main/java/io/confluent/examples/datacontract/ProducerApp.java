@@ -1,16 +1,33 @@
 package io.confluent.examples.datacontract;
 
 import com.github.javafaker.Faker;
+import io.confluent.examples.datacontract.datagen.SaleCorpus;
+import io.confluent.examples.datacontract.datagen.SaleSource;
 import io.confluent.examples.datacontract.datagen.SalesDataGen;
+import io.confluent.examples.datacontract.load.DeadLetterRouter;
+import io.confluent.examples.datacontract.load.DuplicateInjector;
+import io.confluent.examples.datacontract.load.LoadConfig;
+import io.confluent.examples.datacontract.load.OpenLoopSender;
+import io.confluent.examples.datacontract.load.ProducerPool;
+import io.confluent.examples.datacontract.load.StoreSimulator;
+import io.confluent.examples.datacontract.load.TimelineFollower;
+import io.confluent.examples.datacontract.load.TransactionBatcher;
+import io.confluent.examples.datacontract.metrics.ProducerStats;
+import io.confluent.examples.datacontract.metrics.StatsReporter;
 import io.confluent.examples.datacontract.pojo.avro.Sale;
 import io.confluent.examples.datacontract.utils.ClientsUtils;
-import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.examples.datacontract.utils.DeliveryMode;
+import io.confluent.examples.datacontract.utils.PartitionStrategy;
 import org.apache.kafka.clients.producer.*;
-import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
 import org.apache.log4j.Logger;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.Properties;
-import java.util.Random;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -20,25 +37,37 @@ public class ProducerApp implements Runnable {
     private static final Logger logger = Logger.getLogger(ProducerApp.class);
 
     private Properties props;
-    private String topic, dlq;
+    private String topic;
+    private LoadConfig loadConfig;
+    private double ratePerThread;
+    private ProducerStats stats;
+    private Producer<String, Object> sharedProducer;
+    private Iterable<Header> headers;
+    private SaleSource source;
 
     ProducerApp(String clientId) {
-        try {
-            // Load configuration from environment variables (required)
-            props = ClientsUtils.loadConfigFromEnv();
-
-            if (clientId != null) {
-                props.put(ProducerConfig.CLIENT_ID_CONFIG, clientId);
-            }
-            props.put(AbstractKafkaSchemaSerDeConfig.AUTO_REGISTER_SCHEMAS, "false");
-            props.put(AbstractKafkaSchemaSerDeConfig.USE_LATEST_VERSION, "true");
-            props.put(AbstractKafkaSchemaSerDeConfig.LATEST_COMPATIBILITY_STRICT, "false");
-
-            // Refresh schema cache every 5 seconds
-//            props.put(AbstractKafkaSchemaSerDeConfig.LATEST_CACHE_TTL, 1000);
-            props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        this(clientId, null, 0, new ProducerStats(clientId), null, null);
+    }
 
-            props.put("value.serializer", "io.confluent.kafka.serializers.KafkaAvroSerializer");
+    /**
+     * @param loadConfig     when not null, run the rate-targeted load loop instead of the demo loop
+     * @param sharedProducer producer shared with other stores, or null to create (and close) one for this store
+     * @param source         records for the load loop, or null to generate them live
+     */
+    ProducerApp(String clientId, LoadConfig loadConfig, double ratePerThread, ProducerStats stats,
+                Producer<String, Object> sharedProducer, SaleSource source) {
+        this.loadConfig = loadConfig;
+        this.source = source;
+        this.ratePerThread = ratePerThread;
+        this.stats = stats;
+        this.sharedProducer = sharedProducer;
+        if (sharedProducer != null) {
+            // client.id now names the pooled producer, so tag records with the store instead
+            this.headers = Collections.singletonList(new RecordHeader(StoreSimulator.STORE_HEADER,
+                    clientId.getBytes(StandardCharsets.UTF_8)));
+        }
+        try {
+            props = ClientsUtils.loadProducerConfig(clientId);
         } catch (Exception e) {
             e.printStackTrace();
             logger.error("Error in ProducerApp.constructor: " + e);
@@ -49,64 +78,93 @@ public class ProducerApp implements Runnable {
     @Override
     public void run() {
         topic = "payments";
-        Random random = new Random();
-        try (Producer<String, Object> producer = new KafkaProducer<>(props)) {
-            int counter = 0;
+        Producer<String, Object> producer = sharedProducer != null ? sharedProducer : ClientsUtils.createProducer(props);
+        // Pooled producers are never transactional, see main
+        boolean transactional = sharedProducer == null && ClientsUtils.isTransactional(props);
+        DuplicateInjector duplicates = DuplicateInjector.get();
+        DeadLetterRouter deadLetters = DeadLetterRouter.get();
+        TransactionBatcher transactions = null;
+        // Record key: order id by default, customer id with PARTITION_STRATEGY=customer or key-group
+        PartitionStrategy partitioning = PartitionStrategy.fromEnv();
+        try {
+            stats.attach(producer);
+            if (loadConfig != null) {
+                new OpenLoopSender(producer, topic, loadConfig, ratePerThread, stats, headers, source, transactional).run();
+                return;
+            }
+            transactions = new TransactionBatcher(producer, transactional, stats);
             // boolean exit = false;
             while (true) {
                 // Send the record
+                Object sales = null;
                 try {
-                    Object sales;
-
-                    sales = SalesDataGen.getSale(counter);
+                    // Invalid confirmation codes at INVALID_RATE (default every fifth record)
+                    sales = SalesDataGen.getSale();
 
-                    if (counter == 5) {
-                        counter = 0;
-                    }
                     System.out.println("------------------------- ");
 
 		    // For Kafka clients >= 2.4, the producer defaults to the Sticky Partitioner for keyless messages.
 		    // Messages with a key use hashing to determine the partition, aiming for an even spread and guaranteeing order per key.
 
 		    // Create a sales record
-                    ProducerRecord record = new ProducerRecord<>(topic, String.valueOf(((Sale)sales).getOrderId()), sales);
+                    ProducerRecord record = new ProducerRecord<>(topic, null, partitioning.key((Sale) sales), sales, headers);
+                    // Some of the time generate a duplicate, sent in the background (DUPLICATE_RATE, default 10%)
+                    // Not with DELIVERY_MODE=transactional: the copy would be sent outside the transaction
+                    final Sale duplicate = transactions.isActive() ? null : duplicates.maybeCopy((Sale) sales);
+                    transactions.beforeSend();
+                    final long sentNanos = System.nanoTime();
                     producer.send(record, new Callback() {
                         public void onCompletion(RecordMetadata metadata, Exception e) {
+                            stats.onCompletion(sentNanos, sentNanos, metadata, e);
                             if(e != null) {
                                 e.printStackTrace();
                             } else {
                                 System.out.println("The offset of the order record we just sent is: " + metadata.offset());
+                                if (duplicate != null) {
+                                    duplicates.schedule(producer, record, duplicate, metadata);
+                                }
                             }
                         }
                     }).get();
+                    transactions.afterSend();
                     System.out.println(sales);
-
-                    // 10% of the time generate a duplicate
-                    if (random.nextInt(10) == 0) {
-                        producer.send(record, new Callback() {
-                            public void onCompletion(RecordMetadata metadata, Exception e) {
-                                if(e != null) {
-                                    e.printStackTrace();
-                                } else {
-                                    System.out.println("The offset of the order record we just sent is: " + metadata.offset());
-                                }
-                            }
-                        }).get();
-                        System.out.println("Duplicate sale event produced " + sales);
+                    if (duplicate != null) {
+                        System.out.println("Duplicate sale event scheduled " + duplicate);
                     }
 
-                    counter++;
-
-                    Thread.sleep(2000);
+                    // Commits the open transaction once TXN_BATCH_MS has passed, rather than with the next record
+                    transactions.idleUntil(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
                     } catch (Exception e) {
                         // Catch and log the serialization error but continue to next record
                         // logger.error("Serialization error in ProducerApp.run: ", e);
-                        e.printStackTrace();
+                        if (e instanceof ExecutionException) {
+                            // Failures after the record was enqueued were already counted by the callback
+                            e.printStackTrace();
+                        } else if (e instanceof InterruptedException) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        } else if (transactions.isFailed()) {
+                            logger.error("Stopping after a fatal transaction error: ", e);
+                            break;
+                        } else {
+                            // Rule and serialization failures go to the dead-letter topic in the background
+                            stats.onRejected();
+                            Sale sale = (Sale) sales;
+                            deadLetters.route(topic, sale != null ? partitioning.key(sale) : null, sale, e);
+                            System.out.println("Sale event rejected and routed to the DLQ: " + e.getMessage());
+                        }
                         continue;
                     }
             }
             } catch(Exception e){
                 logger.error("Error in ProducerApp.run: ", e);
+            } finally {
+                if (transactions != null) {
+                    transactions.close();
+                }
+                if (sharedProducer == null) {
+                    producer.close();
+                }
             }
 
         }
@@ -116,11 +174,62 @@ public class ProducerApp implements Runnable {
             // Determine thread count: from args or default to 1
             int threadCount = args.length >= 1 ? Integer.parseInt(args[0]) : 1;
 
+            // PRODUCER_MODE=load switches from the 1 event / 2s demo loop to the rate-targeted load loop,
+            // PRODUCER_MODE=stores simulates many stores sharing a few producers,
+            // PRODUCER_MODE=replay runs the load loop over a pre-generated corpus file,
+            // PRODUCER_MODE=timeline pays the orders the PostgreSQL data feeder writes to its timeline
+            String mode = ClientsUtils.getEnv("PRODUCER_MODE", "demo");
+            LoadConfig loadConfig = null;
+            SaleCorpus corpus = null;
+            if ("load".equalsIgnoreCase(mode)) {
+                loadConfig = LoadConfig.fromEnv();
+                System.out.println("Running in load mode with " + threadCount + " threads: " + loadConfig);
+            } else if ("replay".equalsIgnoreCase(mode)) {
+                loadConfig = LoadConfig.fromEnv();
+                corpus = SaleCorpus.open(Paths.get(ClientsUtils.getEnv("CORPUS_FILE", "payments-corpus.bin")));
+                System.out.println("Replaying " + corpus.size() + " corpus records with " + threadCount
+                        + " threads: " + loadConfig);
+            } else if ("stores".equalsIgnoreCase(mode)) {
+                runStores();
+                return;
+            } else if ("timeline".equalsIgnoreCase(mode)) {
+                runTimeline();
+                return;
+            } else if (!"demo".equalsIgnoreCase(mode)) {
+                throw new IllegalArgumentException("Unknown PRODUCER_MODE: " + mode);
+            }
+            final LoadConfig threadLoadConfig = loadConfig;
+            final SaleCorpus threadCorpus = corpus;
+            final double ratePerThread = loadConfig != null ? loadConfig.ratePerThread(threadCount) : 0;
+
+            // Interval snapshots while running, and a final summary on exit (including Ctrl-C / SIGTERM)
+            final StatsReporter reporter = new StatsReporter(ClientsUtils.getEnvLong("STATS_INTERVAL_SEC", 10));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                DuplicateInjector.get().close();
+                DeadLetterRouter.get().close();
+                reporter.close();
+            }, "stats-summary"));
+
+            // PRODUCER_POOL_SIZE=0 keeps one producer per store thread, N > 0 stripes the threads over N producers
+            int poolSize = ClientsUtils.getEnvInt("PRODUCER_POOL_SIZE", 0);
+            if (poolSize > 0 && DeliveryMode.fromEnv() == DeliveryMode.TRANSACTIONAL) {
+                throw new IllegalArgumentException("DELIVERY_MODE=transactional needs PRODUCER_POOL_SIZE=0, "
+                        + "as a transactional producer cannot be shared between threads");
+            }
+            final ProducerPool pool = poolSize > 0 ? new ProducerPool(poolSize, "Pos_Store_pool", null) : null;
+
             ExecutorService exec = Executors.newFixedThreadPool(threadCount);
             for(int i = 0; i < threadCount; i++) {
+                final int storeIndex = i;
                 exec.submit(new Runnable() {
                     public void run() {
-                        ProducerApp producer = new ProducerApp("Pos_Store_"+(new Faker().address().cityName()));
+                        String clientId = "Pos_Store_"+(new Faker().address().cityName());
+                        // Each thread replays its own slice of the corpus, so threads never send the same records
+                        SaleSource source = threadCorpus != null
+                                ? threadCorpus.cursor(threadCorpus.size() * storeIndex / threadCount,
+                                        threadCorpus.size() * (storeIndex + 1) / threadCount) : null;
+                        ProducerApp producer = new ProducerApp(clientId, threadLoadConfig, ratePerThread,
+                                reporter.register(clientId), pool != null ? pool.get(storeIndex) : null, source);
                         System.out.println("Starting new Thread ");
                         producer.run();
 
@@ -130,7 +239,56 @@ public class ProducerApp implements Runnable {
 
             exec.shutdown();
             exec.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            DuplicateInjector.get().close();
+            DeadLetterRouter.get().close();
+            if (pool != null) {
+                pool.close();
+            }
+            if (corpus != null) {
+                corpus.close();
+            }
+            reporter.close();
             System.out.println("End of threads ==============================");
 
         }
+
+        /**
+         * Store-simulation mode: thousands of stores as scheduled tasks over a small producer pool.
+         */
+        private static void runStores() {
+            final StatsReporter reporter = new StatsReporter(ClientsUtils.getEnvLong("STATS_INTERVAL_SEC", 10));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                DuplicateInjector.get().close();
+                DeadLetterRouter.get().close();
+                reporter.close();
+            }, "stats-summary"));
+            try (ProducerPool pool = new ProducerPool(ClientsUtils.getEnvInt("STORE_PRODUCERS", 4),
+                    "Pos_Store_pool", reporter)) {
+                new StoreSimulator(pool, "payments", LoadConfig.fromEnv()).run();
+                DuplicateInjector.get().close();
+                DeadLetterRouter.get().close();
+            }
+            reporter.close();
+        }
+
+        /**
+         * Timeline mode: one payment per order the PostgreSQL data feeder wrote to its timeline file.
+         */
+        private static void runTimeline() {
+            final StatsReporter reporter = new StatsReporter(ClientsUtils.getEnvLong("STATS_INTERVAL_SEC", 10));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                DeadLetterRouter.get().close();
+                reporter.close();
+            }, "stats-summary"));
+            String clientId = "Pos_Store_timeline";
+            Properties props = ClientsUtils.loadProducerConfig(clientId);
+            try (Producer<String, Object> producer = ClientsUtils.createProducer(props)) {
+                ProducerStats stats = reporter.register(clientId);
+                stats.attach(producer);
+                new TimelineFollower(producer, "payments", LoadConfig.fromEnv(), stats,
+                        ClientsUtils.isTransactional(props)).run();
+                DeadLetterRouter.get().close();
+            }
+            reporter.close();
+        }
     }
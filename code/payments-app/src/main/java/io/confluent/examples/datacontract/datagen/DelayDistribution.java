@@ -0,0 +1,48 @@
+package io.confluent.examples.datacontract.datagen;
+
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A delay distribution configured from {@code <PREFIX>_DELAY} and {@code <PREFIX>_DELAY_MS}:
+ * {@code immediate}, {@code fixed} (always the delay), {@code uniform} (0 to the delay) or {@code exp}
+ * (exponential with the delay as mean).
+ */
+public final class DelayDistribution {
+
+    private enum Kind { IMMEDIATE, FIXED, UNIFORM, EXP }
+
+    private final Kind kind;
+    private final long millis;
+
+    private DelayDistribution(Kind kind, long millis) {
+        this.kind = kind;
+        this.millis = millis;
+    }
+
+    public static DelayDistribution fromEnv(String prefix, String defaultKind, long defaultMillis) {
+        return new DelayDistribution(
+                Kind.valueOf(ClientsUtils.getEnv(prefix + "_DELAY", defaultKind).toUpperCase(Locale.ROOT)),
+                ClientsUtils.getEnvLong(prefix + "_DELAY_MS", defaultMillis));
+    }
+
+    public long nextMillis() {
+        switch (kind) {
+            case FIXED:
+                return millis;
+            case UNIFORM:
+                return ThreadLocalRandom.current().nextLong(millis + 1);
+            case EXP:
+                return (long) (-millis * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return kind.name().toLowerCase(Locale.ROOT) + " " + millis + "ms";
+    }
+}
@@ -0,0 +1,120 @@
+package io.confluent.examples.datacontract.datagen;
+
+import io.confluent.examples.datacontract.metrics.DisorderStats;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import org.apache.kafka.common.utils.Utils;
+import org.apache.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Out-of-order event time for watermark stress tests, applied to {@code ts} after the {@link EventClock}.
+ * Off unless one of its variables is set.
+ *
+ * <ul>
+ *     <li>{@code DISORDER_JITTER_MS} - every record is delayed by up to this much, uniformly</li>
+ *     <li>{@code DISORDER_LATE_FRACTION} - this fraction of records is delayed past the watermark bound,
+ *     uniformly between {@code DISORDER_WATERMARK_MS} (default 5000, the labs' {@code ts - INTERVAL '5' SECOND})
+ *     and {@code DISORDER_LATE_MAX_MS} (default 60000)</li>
+ *     <li>{@code DISORDER_PARTITION_SKEW_MS} - partition {@code p} of {@code DISORDER_PARTITIONS} (default 6)
+ *     runs {@code skew * p / (partitions - 1)} behind, as if its sources had slow clocks. Partitions are
+ *     derived from the order id key like the Kafka default partitioner, i.e. {@code PARTITION_STRATEGY=order};
+ *     with other strategies they are simulated groups rather than the real partitions.</li>
+ * </ul>
+ *
+ * Every shift is recorded in {@link DisorderStats}, so the disorder Flink sees is known exactly.
+ */
+public class DisorderModel {
+
+    private static final Logger logger = Logger.getLogger(DisorderModel.class);
+
+    private static class Holder {
+        static final DisorderModel INSTANCE = fromEnv();
+    }
+
+    private final long jitterMillis;
+    private final double lateFraction;
+    private final long watermarkMillis;
+    private final long lateMaxMillis;
+    private final long partitionSkewMillis;
+    private final int partitions;
+    private final AtomicLongArray maxTs;
+
+    DisorderModel(long jitterMillis, double lateFraction, long watermarkMillis, long lateMaxMillis,
+                  long partitionSkewMillis, int partitions) {
+        if (lateFraction < 0 || lateFraction > 1) {
+            throw new IllegalArgumentException("DISORDER_LATE_FRACTION must be between 0 and 1, was " + lateFraction);
+        }
+        if (lateFraction > 0 && lateMaxMillis <= watermarkMillis) {
+            throw new IllegalArgumentException("DISORDER_LATE_MAX_MS must be above DISORDER_WATERMARK_MS");
+        }
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("DISORDER_PARTITIONS must be positive, was " + partitions);
+        }
+        this.jitterMillis = jitterMillis;
+        this.lateFraction = lateFraction;
+        this.watermarkMillis = watermarkMillis;
+        this.lateMaxMillis = lateMaxMillis;
+        this.partitionSkewMillis = partitionSkewMillis;
+        this.partitions = partitions;
+        this.maxTs = new AtomicLongArray(partitions);
+    }
+
+    static DisorderModel fromEnv() {
+        DisorderModel model = new DisorderModel(
+                ClientsUtils.getEnvLong("DISORDER_JITTER_MS", 0),
+                ClientsUtils.getEnvDouble("DISORDER_LATE_FRACTION", 0),
+                ClientsUtils.getEnvLong("DISORDER_WATERMARK_MS", 5000),
+                ClientsUtils.getEnvLong("DISORDER_LATE_MAX_MS", 60000),
+                ClientsUtils.getEnvLong("DISORDER_PARTITION_SKEW_MS", 0),
+                ClientsUtils.getEnvInt("DISORDER_PARTITIONS", 6));
+        if (model.isEnabled()) {
+            logger.info(String.format("Event-time disorder: jitter<=%dms late=%.4f in [%d,%d]ms skew<=%dms over %d partitions",
+                    model.jitterMillis, model.lateFraction, model.watermarkMillis, model.lateMaxMillis,
+                    model.partitionSkewMillis, model.partitions));
+        }
+        return model;
+    }
+
+    /**
+     * The process-wide model, configured from the environment on first use.
+     */
+    public static DisorderModel get() {
+        return Holder.INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return jitterMillis > 0 || lateFraction > 0 || partitionSkewMillis > 0;
+    }
+
+    /**
+     * Shift {@code eventMillis} of the record keyed by {@code orderId} and record the injected disorder.
+     *
+     * @param random the calling generator's random source
+     */
+    public long apply(int orderId, long eventMillis, SplittableRandom random) {
+        int partition = Utils.toPositive(Utils.murmur2(String.valueOf(orderId).getBytes(StandardCharsets.UTF_8)))
+                % partitions;
+        long delay = 0;
+        if (partitionSkewMillis > 0 && partitions > 1) {
+            delay += partitionSkewMillis * partition / (partitions - 1);
+        }
+        if (jitterMillis > 0) {
+            delay += random.nextLong(jitterMillis + 1);
+        }
+        boolean late = lateFraction > 0 && random.nextDouble() < lateFraction;
+        if (late) {
+            delay += random.nextLong(watermarkMillis + 1, lateMaxMillis + 1);
+        }
+        long ts = eventMillis - delay;
+
+        long max;
+        do {
+            max = maxTs.get(partition);
+        } while (ts > max && !maxTs.compareAndSet(partition, max, ts));
+        DisorderStats.record(delay, delay > watermarkMillis, ts < max - watermarkMillis);
+        return ts;
+    }
+}
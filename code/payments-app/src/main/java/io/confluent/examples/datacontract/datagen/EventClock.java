@@ -0,0 +1,105 @@
+package io.confluent.examples.datacontract.datagen;
+
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import org.apache.log4j.Logger;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Event time ({@code ts}) for generated records, shared by all generators in the process.
+ *
+ * By default this is the wall clock. With {@code BACKFILL_DAYS} set, the clock starts that far in the
+ * past and advances by {@code 1 / BACKFILL_RATE} seconds per event over all threads, however fast the
+ * records are actually sent. Once simulated time reaches the wall clock it switches to real time for
+ * good, so a backfill run continues as a live run without a gap or a jump back in {@code ts}.
+ */
+public class EventClock {
+
+    private static final Logger logger = Logger.getLogger(EventClock.class);
+
+    private static class Holder {
+        static final EventClock INSTANCE = fromEnv();
+    }
+
+    private final long startMillis;
+    private final double millisPerEvent;
+    private final boolean recordTimestamps;
+    private final AtomicLong events = new AtomicLong();
+    private volatile boolean live;
+
+    /**
+     * @param backfillMillis how far before now the clock starts; 0 means live from the start
+     * @param ratePerSec     simulated events per second while backfilling
+     */
+    EventClock(long backfillMillis, double ratePerSec, boolean recordTimestamps) {
+        if (backfillMillis > 0 && ratePerSec <= 0) {
+            throw new IllegalArgumentException("BACKFILL_RATE must be positive, was " + ratePerSec);
+        }
+        this.startMillis = System.currentTimeMillis() - backfillMillis;
+        this.millisPerEvent = backfillMillis > 0 ? 1000d / ratePerSec : 0d;
+        this.recordTimestamps = recordTimestamps;
+        this.live = backfillMillis <= 0;
+    }
+
+    static EventClock fromEnv() {
+        double days = ClientsUtils.getEnvDouble("BACKFILL_DAYS", 0);
+        double rate = ClientsUtils.getEnvDouble("BACKFILL_RATE", 10);
+        EventClock clock = new EventClock((long) (days * TimeUnit.DAYS.toMillis(1)), rate,
+                ClientsUtils.getEnvBoolean("BACKFILL_RECORD_TIMESTAMP", false));
+        if (!clock.live) {
+            logger.info(String.format("Backfilling %.2f days from %s at %.1f simulated events/s (%d events)",
+                    days, Instant.ofEpochMilli(clock.startMillis), rate,
+                    (long) (days * TimeUnit.DAYS.toSeconds(1) * rate)));
+        }
+        return clock;
+    }
+
+    /**
+     * The process-wide clock, configured from the environment on first use.
+     */
+    public static EventClock get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Event time of the next record, in epoch millis.
+     */
+    public long nextMillis() {
+        long now = System.currentTimeMillis();
+        if (live) {
+            return now;
+        }
+        long n = events.getAndIncrement();
+        long simulated = startMillis + (long) (n * millisPerEvent);
+        if (simulated < now) {
+            return simulated;
+        }
+        if (!live) {
+            live = true;
+            logger.info("Backfill caught up with real time after " + n + " events");
+        }
+        return now;
+    }
+
+    public Instant next() {
+        return Instant.ofEpochMilli(nextMillis());
+    }
+
+    /**
+     * False while backfilling: senders should go as fast as the cluster allows instead of pacing.
+     */
+    public boolean isLive() {
+        return live;
+    }
+
+    /**
+     * Whether senders should also set the Kafka record timestamp to the event time
+     * ({@code BACKFILL_RECORD_TIMESTAMP}). Off by default, because time-based retention measures
+     * backdated records by their timestamp and may delete them right away.
+     */
+    public boolean recordTimestamps() {
+        return recordTimestamps;
+    }
+}
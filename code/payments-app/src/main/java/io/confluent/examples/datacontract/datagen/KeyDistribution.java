@@ -0,0 +1,185 @@
+package io.confluent.examples.datacontract.datagen;
+
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * How generated records pick an id from {@code 0 .. cardinality - 1}. Implementations are stateless and
+ * shared by all threads; randomness comes from the calling generator.
+ *
+ * Configured per id with {@code <PREFIX>_DIST}:
+ * <ul>
+ *     <li>{@code uniform} - every id equally likely (the default)</li>
+ *     <li>{@code zipf} - id {@code k} has weight {@code 1 / (k + 1)^s}, {@code s} from {@code <PREFIX>_ZIPF_S}
+ *     (default 1.0), so id 0 is the hottest</li>
+ *     <li>{@code hotspot} - the first {@code <PREFIX>_HOT_FRACTION} of ids (default 0.01) get
+ *     {@code <PREFIX>_HOT_TRAFFIC} of the records (default 0.9), uniformly within each set</li>
+ * </ul>
+ * and {@code <PREFIX>_CARDINALITY} for the number of ids.
+ */
+public interface KeyDistribution {
+
+    int next(SplittableRandom random);
+
+    int cardinality();
+
+    static KeyDistribution fromEnv(String prefix, int defaultCardinality) {
+        int cardinality = ClientsUtils.getEnvInt(prefix + "_CARDINALITY", defaultCardinality);
+        String type = ClientsUtils.getEnv(prefix + "_DIST", "uniform").toLowerCase(Locale.ROOT);
+        switch (type) {
+            case "uniform":
+                return new Uniform(cardinality);
+            case "zipf":
+                return new Zipf(cardinality, ClientsUtils.getEnvDouble(prefix + "_ZIPF_S", 1.0));
+            case "hotspot":
+                return new Hotspot(cardinality, ClientsUtils.getEnvDouble(prefix + "_HOT_FRACTION", 0.01),
+                        ClientsUtils.getEnvDouble(prefix + "_HOT_TRAFFIC", 0.9));
+            default:
+                throw new IllegalArgumentException("Unknown " + prefix + "_DIST: " + type);
+        }
+    }
+
+    final class Uniform implements KeyDistribution {
+
+        private final int cardinality;
+
+        public Uniform(int cardinality) {
+            if (cardinality <= 0) {
+                throw new IllegalArgumentException("Cardinality must be positive, was " + cardinality);
+            }
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public int next(SplittableRandom random) {
+            return random.nextInt(cardinality);
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public String toString() {
+            return "uniform(" + cardinality + ")";
+        }
+    }
+
+    /**
+     * Zipf by rejection-inversion sampling (Hormann and Derflinger, 1996): constant time and memory for
+     * any cardinality, no precomputed table.
+     */
+    final class Zipf implements KeyDistribution {
+
+        private final int cardinality;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralN;
+        private final double s;
+
+        public Zipf(int cardinality, double exponent) {
+            if (cardinality <= 0) {
+                throw new IllegalArgumentException("Cardinality must be positive, was " + cardinality);
+            }
+            if (exponent <= 0) {
+                throw new IllegalArgumentException("Zipf exponent must be positive, was " + exponent);
+            }
+            this.cardinality = cardinality;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5) - 1.0;
+            this.hIntegralN = hIntegral(cardinality + 0.5);
+            this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+        }
+
+        @Override
+        public int next(SplittableRandom random) {
+            while (true) {
+                double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+                double x = hIntegralInverse(u);
+                int k = (int) (x + 0.5);
+                if (k < 1) {
+                    k = 1;
+                } else if (k > cardinality) {
+                    k = cardinality;
+                }
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k - 1;
+                }
+            }
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return helper2((1.0 - exponent) * logX) * logX;
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = Math.max(x * (1.0 - exponent), -1.0);
+            return Math.exp(helper1(t) * x);
+        }
+
+        // log(1 + x) / x, accurate near 0
+        private static double helper1(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+        }
+
+        // (exp(x) - 1) / x, accurate near 0
+        private static double helper2(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1.0 + x * 0.5 * (1.0 + x / 3.0 * (1.0 + 0.25 * x));
+        }
+
+        @Override
+        public String toString() {
+            return "zipf(" + cardinality + ", s=" + exponent + ")";
+        }
+    }
+
+    final class Hotspot implements KeyDistribution {
+
+        private final int cardinality;
+        private final int hotCount;
+        private final double hotTraffic;
+
+        public Hotspot(int cardinality, double hotFraction, double hotTraffic) {
+            if (cardinality <= 0) {
+                throw new IllegalArgumentException("Cardinality must be positive, was " + cardinality);
+            }
+            if (hotTraffic < 0 || hotTraffic > 1) {
+                throw new IllegalArgumentException("Hot traffic share must be between 0 and 1, was " + hotTraffic);
+            }
+            this.cardinality = cardinality;
+            this.hotCount = (int) Math.min(cardinality, Math.max(1, Math.round(cardinality * hotFraction)));
+            this.hotTraffic = hotTraffic;
+        }
+
+        @Override
+        public int next(SplittableRandom random) {
+            if (hotCount == cardinality || random.nextDouble() < hotTraffic) {
+                return random.nextInt(hotCount);
+            }
+            return hotCount + random.nextInt(cardinality - hotCount);
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public String toString() {
+            return "hotspot(" + cardinality + ", hot=" + hotCount + ", traffic=" + hotTraffic + ")";
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.confluent.examples.datacontract.datagen;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tails the order timeline file written by the PostgreSQL data feeder ({@code ORDER_TIMELINE_FILE}), so
+ * payments can be generated for the orders that really exist in Postgres.
+ *
+ * Each line is {@code orderId,customerId,orderEpochMillis}, appended after the order was committed. A
+ * line without its trailing newline is left for the next {@link #poll()}, and a file that shrinks is read
+ * again from the start. The file does not have to exist yet; polling simply returns nothing until it does.
+ */
+public class OrderTimeline implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(OrderTimeline.class);
+
+    public static final class Order {
+        public final int orderId;
+        public final int customerId;
+        public final long orderMillis;
+
+        Order(int orderId, int customerId, long orderMillis) {
+            this.orderId = orderId;
+            this.customerId = customerId;
+            this.orderMillis = orderMillis;
+        }
+    }
+
+    private final Path file;
+    private final boolean fromStart;
+    private RandomAccessFile in;
+    private long position;
+    private long malformed;
+
+    /**
+     * @param fromStart read the orders already in the file, instead of only those appended from now on
+     */
+    public OrderTimeline(Path file, boolean fromStart) {
+        this.file = file;
+        this.fromStart = fromStart;
+    }
+
+    /**
+     * Orders appended since the last call, in file order.
+     */
+    public List<Order> poll() throws IOException {
+        if (in == null) {
+            if (!Files.exists(file)) {
+                return Collections.emptyList();
+            }
+            in = new RandomAccessFile(file.toFile(), "r");
+            position = fromStart ? 0 : in.length();
+            logger.info("Following order timeline " + file + " from offset " + position);
+        }
+        long length = in.length();
+        if (length < position) {
+            logger.warn("Order timeline " + file + " was truncated, reading it from the start");
+            position = 0;
+        }
+        if (length == position) {
+            return Collections.emptyList();
+        }
+
+        byte[] buffer = new byte[(int) Math.min(length - position, 1 << 20)];
+        in.seek(position);
+        in.readFully(buffer);
+        List<Order> orders = new ArrayList<>();
+        int lineStart = 0;
+        for (int i = 0; i < buffer.length; i++) {
+            if (buffer[i] == '\n') {
+                Order order = parse(new String(buffer, lineStart, i - lineStart, StandardCharsets.US_ASCII));
+                if (order != null) {
+                    orders.add(order);
+                }
+                lineStart = i + 1;
+            }
+        }
+        position += lineStart;
+        return orders;
+    }
+
+    private Order parse(String line) {
+        String[] fields = line.trim().split(",");
+        if (fields.length != 3) {
+            malformed++;
+            return null;
+        }
+        try {
+            return new Order(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Long.parseLong(fields[2]));
+        } catch (NumberFormatException e) {
+            // Also skips a header line
+            malformed++;
+            return null;
+        }
+    }
+
+    public long malformedLines() {
+        return malformed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package io.confluent.examples.datacontract.datagen;
+
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import org.apache.avro.message.BinaryMessageDecoder;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A file of pre-generated {@link Sale} records for replay without per-record generation cost.
+ *
+ * Layout: an 8-byte magic, the record count and the highest order id, an index of {@code count + 1}
+ * absolute file offsets,
+ * then the records back to back, each in Avro single-object encoding ({@code Sale.getEncoder()}).
+ * The file is memory-mapped read-only in segments of at most 1 GB, split on record boundaries, so any
+ * corpus size works and the page cache is shared by all threads and runs.
+ *
+ * Generate one with {@code java -cp <jar> io.confluent.examples.datacontract.datagen.SaleCorpus <file> <count>};
+ * with {@code DATAGEN_SEED} set the content is the same on every run.
+ */
+public class SaleCorpus implements AutoCloseable {
+
+    private static final long MAGIC = 0x53414c4543525032L; // "SALECRP2"
+    private static final int HEADER_BYTES = 24;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+    private static final int INDEX_ENTRIES_PER_MAP = (int) (MAX_SEGMENT_BYTES / Long.BYTES);
+
+    private final FileChannel channel;
+    private final long count;
+    private final int maxOrderId;
+    private final LongBuffer[] index;
+    private final MappedByteBuffer[] segments;
+    private final long[] segmentFirstRecord;
+    private final long[] segmentBase;
+
+    private SaleCorpus(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getLong() != MAGIC) {
+            throw new IOException("Not a Sale corpus file, or written by an older version: regenerate it");
+        }
+        this.count = header.getLong();
+        this.maxOrderId = (int) header.getLong();
+        this.index = mapIndex(channel, FileChannel.MapMode.READ_ONLY, count);
+
+        List<MappedByteBuffer> maps = new ArrayList<>();
+        List<Long> firsts = new ArrayList<>();
+        List<Long> bases = new ArrayList<>();
+        long record = 0;
+        while (record < count) {
+            long base = offset(record);
+            long end = record;
+            while (end < count && offset(end + 1) - base <= MAX_SEGMENT_BYTES) {
+                end++;
+            }
+            if (end == record) {
+                throw new IOException("Record " + record + " is larger than a segment");
+            }
+            maps.add(channel.map(FileChannel.MapMode.READ_ONLY, base, offset(end) - base));
+            firsts.add(record);
+            bases.add(base);
+            record = end;
+        }
+        this.segments = maps.toArray(new MappedByteBuffer[0]);
+        this.segmentFirstRecord = firsts.stream().mapToLong(Long::longValue).toArray();
+        this.segmentBase = bases.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    public static SaleCorpus open(Path file) throws IOException {
+        return new SaleCorpus(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Generate {@code count} records into {@code file}, replacing it. Records fail the confirmation code
+     * rule at {@code INVALID_RATE}, the same mix as the live generators.
+     */
+    public static void write(Path file, long count, SalesDataGen generator) throws IOException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Corpus record count must be positive, was " + count);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            LongBuffer[] index = mapIndex(channel, FileChannel.MapMode.READ_WRITE, count);
+            long position = HEADER_BYTES + (count + 1) * Long.BYTES;
+            channel.position(position);
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            Sale sale = new Sale();
+            int maxOrderId = 0;
+            for (long i = 0; i < count; i++) {
+                putIndex(index, i, position);
+                sale = generator.nextSale(sale, generator.nextInvalid());
+                maxOrderId = Math.max(maxOrderId, sale.getOrderId());
+                ByteBuffer encoded = Sale.getEncoder().encode(sale);
+                position += encoded.remaining();
+                out.write(encoded.array(), encoded.arrayOffset() + encoded.position(), encoded.remaining());
+            }
+            putIndex(index, count, position);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putLong(MAGIC).putLong(count).putLong(maxOrderId).flip();
+            channel.write(header, 0);
+        }
+    }
+
+    public long size() {
+        return count;
+    }
+
+    /**
+     * A new cursor over records {@code first} (inclusive) to {@code end} (exclusive), wrapping around to
+     * {@code first} at the end. Give concurrent cursors disjoint ranges, otherwise they send the same
+     * records. Cursors are not thread-safe, use one per sending thread.
+     */
+    public Cursor cursor(long first, long end) {
+        if (first < 0 || end > count || first >= end) {
+            throw new IllegalArgumentException("Invalid corpus range " + first + "-" + end + " of " + count
+                    + " records: use fewer threads or a larger corpus");
+        }
+        return new Cursor(first, end);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long offset(long record) {
+        return index[(int) (record / INDEX_ENTRIES_PER_MAP)].get((int) (record % INDEX_ENTRIES_PER_MAP));
+    }
+
+    private static void putIndex(LongBuffer[] index, long record, long offset) {
+        index[(int) (record / INDEX_ENTRIES_PER_MAP)].put((int) (record % INDEX_ENTRIES_PER_MAP), offset);
+    }
+
+    private static LongBuffer[] mapIndex(FileChannel channel, FileChannel.MapMode mode, long count) throws IOException {
+        long entries = count + 1;
+        int maps = (int) ((entries + INDEX_ENTRIES_PER_MAP - 1) / INDEX_ENTRIES_PER_MAP);
+        LongBuffer[] index = new LongBuffer[maps];
+        for (int i = 0; i < maps; i++) {
+            long first = (long) i * INDEX_ENTRIES_PER_MAP;
+            long size = Math.min(INDEX_ENTRIES_PER_MAP, entries - first) * Long.BYTES;
+            index[i] = channel.map(mode, HEADER_BYTES + first * Long.BYTES, size).asLongBuffer();
+        }
+        return index;
+    }
+
+    /**
+     * Sequential reader decoding into one reused {@link Sale}. With {@code restamp}, {@code ts} is taken
+     * from the {@link EventClock} and {@link DisorderModel} like generated records, so replayed records
+     * look live (or backfilled) to the Flink watermarks, and every lap after the first adds
+     * {@code lap * (maxOrderId + 1)} to the order id, so wrapping around does not resend order ids.
+     * Without it records are replayed verbatim and every lap repeats the order ids of the first.
+     */
+    public class Cursor implements SaleSource {
+
+        private final ByteBuffer[] views = new ByteBuffer[segments.length];
+        private final BinaryMessageDecoder<Sale> decoder = Sale.createDecoder(null);
+        private final boolean restamp = ClientsUtils.getEnvBoolean("REPLAY_RESTAMP", true);
+        private final SplittableRandom random;
+        private final long first;
+        private final long end;
+        private final int firstSegment;
+        private Sale sale = new Sale();
+        private long record;
+        private int segment;
+        private int lap;
+
+        private Cursor(long first, long end) {
+            for (int i = 0; i < segments.length; i++) {
+                views[i] = segments[i].duplicate();
+            }
+            this.first = first;
+            this.end = end;
+            this.record = first;
+            this.random = new SplittableRandom(first);
+            while (segment + 1 < segments.length && segmentFirstRecord[segment + 1] <= record) {
+                segment++;
+            }
+            this.firstSegment = segment;
+        }
+
+        @Override
+        public Sale next() {
+            if (record == end) {
+                record = first;
+                segment = firstSegment;
+                lap++;
+            } else if (segment + 1 < segments.length && record == segmentFirstRecord[segment + 1]) {
+                segment++;
+            }
+            ByteBuffer view = views[segment];
+            long start = offset(record) - segmentBase[segment];
+            long end = offset(record + 1) - segmentBase[segment];
+            view.limit((int) end).position((int) start);
+            try {
+                sale = decoder.decode(view, sale);
+            } catch (IOException e) {
+                throw new IllegalStateException("Corrupt corpus record " + record, e);
+            }
+            record++;
+            if (restamp) {
+                if (lap > 0) {
+                    sale.setOrderId(lapOrderId(sale.getOrderId()));
+                }
+                sale.setTs(Instant.ofEpochMilli(SalesDataGen.eventMillis(sale.getOrderId(), random)));
+            }
+            return sale;
+        }
+
+        private int lapOrderId(int orderId) {
+            try {
+                return Math.addExact(orderId, Math.multiplyExact(lap, maxOrderId + 1));
+            } catch (ArithmeticException e) {
+                throw new IllegalStateException("Replay ran out of order ids after " + lap
+                        + " laps of the corpus: use a larger corpus", e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length >= 1 ? args[0] : ClientsUtils.getEnv("CORPUS_FILE", "payments-corpus.bin"));
+        long count = args.length >= 2 ? Long.parseLong(args[1]) : ClientsUtils.getEnvLong("CORPUS_RECORDS", 1_000_000);
+        String seed = ClientsUtils.getEnv("DATAGEN_SEED", null);
+        SalesDataGen generator = seed != null ? new SalesDataGen(Long.parseLong(seed)) : new SalesDataGen();
+
+        long start = System.nanoTime();
+        write(file, count, generator);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %d records to %s (%d bytes) in %.1fs%n", count, file, file.toFile().length(), seconds);
+    }
+}
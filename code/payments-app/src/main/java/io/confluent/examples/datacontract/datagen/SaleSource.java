@@ -0,0 +1,12 @@
+package io.confluent.examples.datacontract.datagen;
+
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+
+/**
+ * Supplies the records for one sending thread. The returned {@link Sale} may be reused by the next call,
+ * so it must be handed to {@code producer.send} (which serializes it) before asking for another.
+ */
+public interface SaleSource {
+
+    Sale next();
+}
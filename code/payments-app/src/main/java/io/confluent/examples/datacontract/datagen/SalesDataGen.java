@@ -1,88 +1,283 @@
 package io.confluent.examples.datacontract.datagen;
 
 import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import org.apache.avro.util.Utf8;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Generates mock {@link Sale} records.
+ *
+ * Each thread gets its own generator (see {@link #forCurrentThread()}) with a private PRNG split from a
+ * shared seed, so generation needs no locking. Set {@code DATAGEN_SEED} to make runs repeatable.
+ * Order ids are handed out to generators in blocks from a global atomic counter: they are unique across
+ * any number of threads, but interleave between threads rather than being strictly increasing.
+ */
 public class SalesDataGen {
 
     private static final String CONF_CODE_CHAR_LIST = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final byte[] CONF_CODE_CHARS = CONF_CODE_CHAR_LIST.getBytes(StandardCharsets.US_ASCII);
     private static final int CONF_CODE_LENGTH = 8;
+    // 16 digits in groups of 4: dddd-dddd-dddd-dddd
+    private static final int CC_NUMBER_LENGTH = 19;
 
-    private static int orderId = 3000;
+    private static final int FIRST_ORDER_ID = 3000;
+    private static final int ORDER_ID_BLOCK_SIZE = 1024;
+    private static final AtomicInteger nextOrderIdBlock = new AtomicInteger(FIRST_ORDER_ID);
+
+    // CUSTOMER_DIST / PRODUCT_DIST and friends, see KeyDistribution; defaults are the original uniform 0-49 / 0-99
+    static final KeyDistribution CUSTOMERS = KeyDistribution.fromEnv("CUSTOMER", 50);
+    static final KeyDistribution PRODUCTS = KeyDistribution.fromEnv("PRODUCT", 100);
+
+    // Share of records that break the confirmation code rule; 0.2 is the original one in five
+    private static final double INVALID_RATE = ClientsUtils.getEnvDouble("INVALID_RATE", 0.2);
+
+    private static final SplittableRandom seedSource =
+            new SplittableRandom(ClientsUtils.getEnvLong("DATAGEN_SEED", System.nanoTime()));
+    private static final ThreadLocal<SalesDataGen> perThread = ThreadLocal.withInitial(SalesDataGen::new);
+
+    private static volatile ExpirationTable expirations = ExpirationTable.forCurrentYear();
+
+    private final SplittableRandom random;
+    private final byte[] scratch = new byte[CC_NUMBER_LENGTH];
+    private int nextOrderId;
+    private int orderIdLimit;
+    private long invalidCounter;
+
+    /**
+     * New generator seeded from the shared seed source.
+     */
+    public SalesDataGen() {
+        this(splitSeedSource());
+    }
+
+    /**
+     * New generator with its own fixed seed, independent of {@code DATAGEN_SEED}.
+     */
+    public SalesDataGen(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SalesDataGen(SplittableRandom random) {
+        this.random = random;
+    }
+
+    private static synchronized SplittableRandom splitSeedSource() {
+        // SplittableRandom itself is not thread-safe, only the split-off instances are independent
+        return seedSource.split();
+    }
+
+    /**
+     * The generator owned by the calling thread.
+     */
+    public static SalesDataGen forCurrentThread() {
+        return perThread.get();
+    }
 
     static int getRandomNumber(int max)
     {
-        return new Random().nextInt(max);
+        return forCurrentThread().random.nextInt(max);
     }
 
     public static String generateConfirmationCode() {
-        StringBuilder code = new StringBuilder();
-        Random random = new Random();
-        for (int i = 0; i < CONF_CODE_LENGTH; i++) {
-            int index = random.nextInt(CONF_CODE_CHAR_LIST.length());
-            code.append(CONF_CODE_CHAR_LIST.charAt(index));
-        }
-        return code.toString();
+        return forCurrentThread().nextConfirmationCode();
     }
 
     public static String generateFakeCreditCardNumber() {
-        Random random = new Random();
-        StringBuilder cardNumber = new StringBuilder();
+        return forCurrentThread().nextCreditCardNumber();
+    }
 
-        // Generate the first digit (between 2 and 4)
-        cardNumber.append(random.nextInt(3) + 2);
+    public static String generateFakeExpirationDate() {
+        return forCurrentThread().nextExpirationDate();
+    }
 
-        // Generate the next 15 digits
-        for (int i = 2 ; i < 17; i++) {
-            cardNumber.append(random.nextInt(10));
-            if (i % 4 == 0 && i != 16) {
-                cardNumber.append("-");
-            }
-        }
+    public static Sale getSale(int fail) {
+        return forCurrentThread().nextSale(fail == 5);
+    }
 
-        return cardNumber.toString();
+    /**
+     * A new {@link Sale}, invalid at the {@code INVALID_RATE} mix.
+     */
+    public static Sale getSale() {
+        SalesDataGen generator = forCurrentThread();
+        return generator.nextSale(generator.nextInvalid());
     }
 
-    public static String generateFakeExpirationDate() {
-        Random random = new Random();
-        // Generate a year between 1 and 4 years in the future
-        int yearToAdd = 1 + random.nextInt(4);
-        // Generate a month between 1 and 12
-        int month = 1 + random.nextInt(12);
+    /**
+     * Whether the next record should break the data quality rule. Invalid records are spread evenly at
+     * exactly {@code INVALID_RATE} per generator rather than drawn at random, so at the default 0.2 every
+     * fifth record is invalid as before, and benchmark runs see the same mix.
+     */
+    public boolean nextInvalid() {
+        return nextInvalid(INVALID_RATE);
+    }
 
-        // Get the current date
-        LocalDate currentDate = LocalDate.now();
-        // Calculate the expiration date
-        LocalDate expirationDate = currentDate.plusYears(yearToAdd).withMonth(month);
+    public boolean nextInvalid(double rate) {
+        long n = invalidCounter++;
+        return (long) ((n + 1) * rate) > (long) (n * rate);
+    }
 
-        // Format the expiration date as MM/YY
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/yy");
-        return expirationDate.format(formatter);
+    /**
+     * Next order id, unique across all generators in this JVM.
+     */
+    public int nextOrderId() {
+        if (nextOrderId == orderIdLimit) {
+            nextOrderId = nextOrderIdBlock.getAndAdd(ORDER_ID_BLOCK_SIZE);
+            orderIdLimit = nextOrderId + ORDER_ID_BLOCK_SIZE;
+        }
+        return nextOrderId++;
     }
 
-    public static Sale getSale(int fail) {
+    public String nextConfirmationCode() {
+        writeConfirmationCode(scratch);
+        return new String(scratch, 0, CONF_CODE_LENGTH, StandardCharsets.US_ASCII);
+    }
 
+    public String nextCreditCardNumber() {
+        writeCreditCardNumber(scratch);
+        return new String(scratch, 0, CC_NUMBER_LENGTH, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Expiration date 1 to 4 years in the future, formatted as MM/yy.
+     */
+    public String nextExpirationDate() {
+        ExpirationTable table = expirations;
+        if (System.currentTimeMillis() >= table.validUntilMillis) {
+            // New year: racing threads may each rebuild the table, which is harmless
+            table = ExpirationTable.forCurrentYear();
+            expirations = table;
+        }
+        return table.values[random.nextInt(table.values.length)];
+    }
+
+    /**
+     * A new {@link Sale}; with {@code invalid} set its confirmation code breaks the data quality rule.
+     */
+    public Sale nextSale(boolean invalid) {
         Sale order = new Sale();
-        order.setOrderId(orderId++);
-        order.setProductId(getRandomNumber(100));
-        order.setCustomerId(getRandomNumber(50));
-        order.setTs(Instant.ofEpochMilli(System.currentTimeMillis()));
-        order.setCcNumber(generateFakeCreditCardNumber());
-        order.setExpiration(generateFakeExpirationDate());
-        order.setAmount((new Random().nextDouble())*1000);
-
-        if (fail == 5) {
-            order.setConfirmationCode("0");
+        order.setOrderId(nextOrderId());
+        order.setProductId(PRODUCTS.next(random));
+        order.setCustomerId(CUSTOMERS.next(random));
+        order.setTs(Instant.ofEpochMilli(eventMillis(order.getOrderId(), random)));
+        order.setCcNumber(nextCreditCardNumber());
+        order.setExpiration(nextExpirationDate());
+        order.setAmount(random.nextDouble() * 1000);
+        order.setConfirmationCode(invalid ? "0" : nextConfirmationCode());
+        return order;
+    }
+
+    /**
+     * A payment for an existing order: as {@link #nextSale(boolean)}, but with the given order id,
+     * customer id and {@code ts} instead of generated ones.
+     */
+    public Sale paymentFor(int orderId, int customerId, long tsMillis, boolean invalid) {
+        Sale payment = new Sale();
+        payment.setOrderId(orderId);
+        payment.setProductId(PRODUCTS.next(random));
+        payment.setCustomerId(customerId);
+        payment.setTs(Instant.ofEpochMilli(tsMillis));
+        payment.setCcNumber(nextCreditCardNumber());
+        payment.setExpiration(nextExpirationDate());
+        payment.setAmount(random.nextDouble() * 1000);
+        payment.setConfirmationCode(invalid ? "0" : nextConfirmationCode());
+        return payment;
+    }
+
+    /**
+     * Overwrite {@code reuse} with the next sale, writing the generated strings into its existing
+     * {@link Utf8} fields instead of allocating new ones. Only safe when the caller owns {@code reuse}
+     * exclusively, e.g. it has already been serialized and will not be resent.
+     */
+    public Sale nextSale(Sale reuse, boolean invalid) {
+        reuse.setOrderId(nextOrderId());
+        reuse.setProductId(PRODUCTS.next(random));
+        reuse.setCustomerId(CUSTOMERS.next(random));
+        reuse.setTs(Instant.ofEpochMilli(eventMillis(reuse.getOrderId(), random)));
+
+        Utf8 ccNumber = reusableUtf8(reuse.getCcNumber(), CC_NUMBER_LENGTH);
+        writeCreditCardNumber(ccNumber.getBytes());
+        reuse.setCcNumber(ccNumber);
+
+        reuse.setExpiration(nextExpirationDate());
+        reuse.setAmount(random.nextDouble() * 1000);
+
+        if (invalid) {
+            reuse.setConfirmationCode("0");
         } else {
-            order.setConfirmationCode(generateConfirmationCode());
+            Utf8 code = reusableUtf8(reuse.getConfirmationCode(), CONF_CODE_LENGTH);
+            writeConfirmationCode(code.getBytes());
+            reuse.setConfirmationCode(code);
         }
+        return reuse;
+    }
 
-        
+    /**
+     * {@code ts} for the given order: the {@link EventClock}, shifted by the {@link DisorderModel} if enabled.
+     */
+    static long eventMillis(int orderId, SplittableRandom random) {
+        long eventMillis = EventClock.get().nextMillis();
+        DisorderModel disorder = DisorderModel.get();
+        return disorder.isEnabled() ? disorder.apply(orderId, eventMillis, random) : eventMillis;
+    }
 
-        return order;
+    private static Utf8 reusableUtf8(CharSequence current, int length) {
+        Utf8 utf8 = current instanceof Utf8 ? (Utf8) current : new Utf8(new byte[length]);
+        // Resets the cached String/hash, so the bytes written afterwards are what gets read
+        return utf8.setByteLength(length);
+    }
+
+    private void writeConfirmationCode(byte[] dst) {
+        for (int i = 0; i < CONF_CODE_LENGTH; i++) {
+            dst[i] = CONF_CODE_CHARS[random.nextInt(CONF_CODE_CHARS.length)];
+        }
+    }
+
+    private void writeCreditCardNumber(byte[] dst) {
+        // First digit between 2 and 4, then 15 more digits with a dash after every group of 4
+        int pos = 0;
+        dst[pos++] = (byte) ('2' + random.nextInt(3));
+        for (int digit = 2; digit <= 16; digit++) {
+            dst[pos++] = (byte) ('0' + random.nextInt(10));
+            if (digit % 4 == 0 && digit != 16) {
+                dst[pos++] = '-';
+            }
+        }
+    }
+
+    /**
+     * All 48 possible MM/yy expiration strings for the current year, so generation is a table lookup
+     * instead of date arithmetic and formatting per record.
+     */
+    private static final class ExpirationTable {
+        final String[] values;
+        final long validUntilMillis;
+
+        private ExpirationTable(String[] values, long validUntilMillis) {
+            this.values = values;
+            this.validUntilMillis = validUntilMillis;
+        }
+
+        static ExpirationTable forCurrentYear() {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate today = LocalDate.now(zone);
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/yy");
+            String[] values = new String[4 * 12];
+            for (int yearToAdd = 1; yearToAdd <= 4; yearToAdd++) {
+                for (int month = 1; month <= 12; month++) {
+                    values[(yearToAdd - 1) * 12 + month - 1] =
+                            today.plusYears(yearToAdd).withMonth(month).format(formatter);
+                }
+            }
+            long nextYear = today.withDayOfYear(1).plusYears(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            return new ExpirationTable(values, nextYear);
+        }
     }
 }
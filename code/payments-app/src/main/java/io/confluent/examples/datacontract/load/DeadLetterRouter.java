@@ -0,0 +1,271 @@
+package io.confluent.examples.datacontract.load;
+
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side dead-letter path for records that {@code producer.send} rejects: data contract rule
+ * failures and other serialization errors, which are thrown to the sender before the record is enqueued.
+ * Shared by all senders in the process.
+ *
+ * {@link #route} only masks the card number and offers the record to a bounded queue, so a burst of bad
+ * data never slows the good records; when the queue is full the record is dropped and counted. A
+ * background thread drains the queue in batches to {@code DLQ_TOPIC} (default error-payments, the topic
+ * Terraform creates) with its own byte-array producer. The value is the {@link Sale} in Avro single-object encoding
+ * ({@code Sale.getEncoder()}) with {@code cc_number} masked, since it never reached the encryption rule.
+ * Failure details go in headers:
+ * {@code dlq.reason} (rule or serialization), {@code dlq.rule}, {@code dlq.exception.class},
+ * {@code dlq.exception.message}, {@code dlq.source.topic} and {@code dlq.timestamp}.
+ *
+ * The lab's {@code validateConfirmationCode} rule uses {@code onFailure=DLQ}, so the serializer already
+ * writes its failures to {@code error-payments}, synchronously on the send path. Rule failures are
+ * therefore only routed with {@code DLQ_ROUTE_RULE_FAILURES=true}, meant for a rule switched to
+ * {@code onFailure=ERROR}; otherwise each failure would be dead-lettered twice.
+ *
+ * <ul>
+ *     <li>{@code DLQ_ENABLED} - route rejected records (default true); failures are still counted when off</li>
+ *     <li>{@code DLQ_ROUTE_RULE_FAILURES} - also route data contract rule failures (default false)</li>
+ *     <li>{@code DLQ_QUEUE_CAPACITY} - records waiting to be sent (default 10000)</li>
+ *     <li>{@code DLQ_BATCH_SIZE} - records taken from the queue per batch (default 500)</li>
+ * </ul>
+ *
+ * Without {@code bootstrap.servers} (local mode with no cluster) records are counted and discarded.
+ */
+public class DeadLetterRouter implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(DeadLetterRouter.class);
+    private static final String RULE_FAILED_PREFIX = "Rule failed: ";
+
+    private static class Holder {
+        static final DeadLetterRouter INSTANCE = new DeadLetterRouter();
+    }
+
+    private static final class DeadLetter {
+        final String topic;
+        final String key;
+        final Sale masked;
+        final String rule;
+        final Throwable cause;
+        final long timestamp = System.currentTimeMillis();
+
+        DeadLetter(String topic, String key, Sale masked, String rule, Throwable cause) {
+            this.topic = topic;
+            this.key = key;
+            this.masked = masked;
+            this.rule = rule;
+            this.cause = cause;
+        }
+    }
+
+    private final String dlqTopic = ClientsUtils.getEnv("DLQ_TOPIC", "error-payments");
+    private final boolean enabled = ClientsUtils.getEnvBoolean("DLQ_ENABLED", true);
+    private final boolean routeRuleFailures = ClientsUtils.getEnvBoolean("DLQ_ROUTE_RULE_FAILURES", false);
+    private final int batchSize = ClientsUtils.getEnvInt("DLQ_BATCH_SIZE", 500);
+    private final BlockingQueue<DeadLetter> queue =
+            new ArrayBlockingQueue<>(ClientsUtils.getEnvInt("DLQ_QUEUE_CAPACITY", 10_000));
+
+    private final Map<String, LongAdder> failuresByRule = new ConcurrentHashMap<>();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder sendErrors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile Producer<byte[], byte[]> producer;
+    private Thread drainer;
+    private volatile boolean closed;
+
+    private DeadLetterRouter() {
+    }
+
+    public static DeadLetterRouter get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Count a rejected record and queue it for the dead-letter topic, unless it failed a rule and rule
+     * failures are not routed. Never blocks.
+     *
+     * @param sale the rejected record; copied, so the caller may reuse it
+     */
+    public void route(String topic, String key, Sale sale, Throwable e) {
+        String rule = ruleName(e);
+        failuresByRule.computeIfAbsent(rule != null ? rule : "serialization", r -> new LongAdder()).increment();
+        if (!enabled || closed || sale == null || (rule != null && !routeRuleFailures)) {
+            return;
+        }
+        startIfNeeded();
+        Sale masked = Sale.newBuilder(sale).setCcNumber(mask(sale.getCcNumber())).build();
+        if (!queue.offer(new DeadLetter(topic, key, masked, rule, e))) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Rejected records so far, by rule name ({@code serialization} when no rule was involved).
+     */
+    public Map<String, Long> failuresByRule() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : failuresByRule.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    private synchronized void startIfNeeded() {
+        if (drainer != null || closed) {
+            return;
+        }
+        Properties props = ClientsUtils.loadConfigFromEnv();
+        if (props.getProperty(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG) != null) {
+            props.put(ProducerConfig.CLIENT_ID_CONFIG, "payments-dlq");
+            props.put(ProducerConfig.LINGER_MS_CONFIG, "50");
+            props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+            producer = new KafkaProducer<>(props, new ByteArraySerializer(), new ByteArraySerializer());
+        }
+        drainer = new Thread(this::drain, "dlq-router");
+        drainer.setDaemon(true);
+        drainer.start();
+        logger.info("Routing rejected records to " + (producer != null ? dlqTopic : "nowhere (no cluster)"));
+    }
+
+    private void drain() {
+        List<DeadLetter> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                DeadLetter first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                for (DeadLetter letter : batch) {
+                    send(letter);
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(DeadLetter letter) {
+        if (producer == null) {
+            sent.increment();
+            return;
+        }
+        try {
+            ByteBuffer encoded = Sale.getEncoder().encode(letter.masked);
+            byte[] value = new byte[encoded.remaining()];
+            encoded.get(value);
+            Headers headers = new RecordHeaders();
+            headers.add("dlq.reason", bytes(letter.rule != null ? "rule" : "serialization"));
+            if (letter.rule != null) {
+                headers.add("dlq.rule", bytes(letter.rule));
+            }
+            Throwable root = rootCause(letter.cause);
+            headers.add("dlq.exception.class", bytes(root.getClass().getName()));
+            headers.add("dlq.exception.message", bytes(String.valueOf(root.getMessage())));
+            headers.add("dlq.source.topic", bytes(letter.topic));
+            headers.add("dlq.timestamp", bytes(String.valueOf(letter.timestamp)));
+            byte[] key = letter.key != null ? bytes(letter.key) : null;
+            producer.send(new ProducerRecord<>(dlqTopic, null, key, value, headers), (metadata, e) -> {
+                if (e != null) {
+                    sendErrors.increment();
+                } else {
+                    sent.increment();
+                }
+            });
+        } catch (Exception e) {
+            sendErrors.increment();
+            logger.debug("Dead letter not sent: " + e);
+        }
+    }
+
+    /**
+     * Drain what is queued, close the DLQ producer and log the failure counts. Safe to call more than once.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (drainer != null) {
+            try {
+                drainer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (producer != null) {
+            producer.close();
+        }
+        Map<String, Long> failures = failuresByRule();
+        if (!failures.isEmpty()) {
+            logger.info(String.format("Rejected records by rule: %s; dead letters sent=%d errors=%d dropped=%d",
+                    failures, sent.sum(), sendErrors.sum(), dropped.sum()));
+        }
+    }
+
+    /**
+     * The failing rule's name, from the "Rule failed: <name>" message the rule error action throws.
+     */
+    static String ruleName(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String message = t.getMessage();
+            if (message != null && message.startsWith(RULE_FAILED_PREFIX)) {
+                return message.substring(RULE_FAILED_PREFIX.length()).trim();
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root;
+    }
+
+    static String mask(CharSequence ccNumber) {
+        if (ccNumber == null) {
+            return null;
+        }
+        StringBuilder masked = new StringBuilder(ccNumber.length());
+        int keep = ccNumber.length() - 4;
+        for (int i = 0; i < ccNumber.length(); i++) {
+            char c = ccNumber.charAt(i);
+            masked.append(i < keep && Character.isDigit(c) ? '*' : c);
+        }
+        return masked.toString();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
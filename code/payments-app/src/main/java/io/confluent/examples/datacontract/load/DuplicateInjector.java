@@ -0,0 +1,192 @@
+package io.confluent.examples.datacontract.load;
+
+import io.confluent.examples.datacontract.datagen.DelayDistribution;
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Re-sends a share of the records a second time, asynchronously, to exercise the {@code unique_payments}
+ * dedup. Shared by all senders in the process.
+ *
+ * Senders ask {@link #maybeCopy} before each send; when the record is picked they keep the copy and hand
+ * it to {@link #schedule} from the original's ack callback. The duplicate is then sent by a background
+ * thread after a delay drawn from the configured distribution, so senders never wait for it.
+ *
+ * <ul>
+ *     <li>{@code DUPLICATE_RATE} - share of records duplicated (default 0.1)</li>
+ *     <li>{@code DUPLICATE_DELAY} - {@code immediate} (default), {@code fixed}, {@code uniform} (0 to the delay)
+ *     or {@code exp} (exponential with the delay as mean)</li>
+ *     <li>{@code DUPLICATE_DELAY_MS} - the delay parameter (default 60000)</li>
+ *     <li>{@code DUPLICATE_CROSS_PARTITION} - send the copy to a different partition than the original (default false)</li>
+ *     <li>{@code DUPLICATE_MAX_PENDING} - duplicates waiting for their delay; more are dropped (default 1000000)</li>
+ *     <li>{@code DUPLICATE_TRUTH_FILE} - CSV of every duplicate sent, for checking the dedup output (default none)</li>
+ * </ul>
+ */
+public class DuplicateInjector implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(DuplicateInjector.class);
+
+    private static class Holder {
+        static final DuplicateInjector INSTANCE = new DuplicateInjector();
+    }
+
+    private final double rate = ClientsUtils.getEnvDouble("DUPLICATE_RATE", 0.1);
+    private final DelayDistribution delay = DelayDistribution.fromEnv("DUPLICATE", "immediate", 60000);
+    private final boolean crossPartition = ClientsUtils.getEnvBoolean("DUPLICATE_CROSS_PARTITION", false);
+    private final int maxPending = ClientsUtils.getEnvInt("DUPLICATE_MAX_PENDING", 1_000_000);
+
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Map<String, Integer> partitionCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final BufferedWriter truth;
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean closed;
+
+    private DuplicateInjector() {
+        scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "duplicate-injector");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        String truthFile = ClientsUtils.getEnv("DUPLICATE_TRUTH_FILE", null);
+        try {
+            truth = truthFile == null ? null : Files.newBufferedWriter(Paths.get(truthFile), StandardCharsets.UTF_8);
+            if (truth != null) {
+                truth.write("order_id,original_partition,original_offset,duplicate_partition,duplicate_offset,delay_ms\n");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("ERROR: Cannot create DUPLICATE_TRUTH_FILE " + truthFile, e);
+        }
+        if (rate > 0) {
+            logger.info(String.format("Duplicating %.1f%% of records, delay=%s, cross-partition=%s",
+                    rate * 100, delay, crossPartition));
+        }
+    }
+
+    public static DuplicateInjector get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * A copy of {@code sale} when it is picked for duplication, otherwise null. The copy is taken before
+     * sending because senders may reuse the original {@link Sale}.
+     */
+    public Sale maybeCopy(Sale sale) {
+        if (rate <= 0 || closed || ThreadLocalRandom.current().nextDouble() >= rate) {
+            return null;
+        }
+        return Sale.newBuilder(sale).build();
+    }
+
+    /**
+     * Schedule the duplicate of an acked record; safe to call from a producer callback.
+     */
+    public void schedule(Producer<String, Object> producer, ProducerRecord<String, Object> original, Sale copy,
+                         RecordMetadata originalMetadata) {
+        if (closed || pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        scheduled.increment();
+        long delayMs = delay.nextMillis();
+        long scheduledAt = System.currentTimeMillis();
+        scheduler.schedule(() -> send(producer, original, copy, originalMetadata, scheduledAt),
+                delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void send(Producer<String, Object> producer, ProducerRecord<String, Object> original, Sale copy,
+                      RecordMetadata originalMetadata, long scheduledAt) {
+        pending.decrementAndGet();
+        Integer partition = null;
+        if (crossPartition) {
+            int partitions = partitionCounts.computeIfAbsent(original.topic(), t -> producer.partitionsFor(t).size());
+            if (partitions > 1) {
+                int shift = 1 + ThreadLocalRandom.current().nextInt(partitions - 1);
+                partition = (originalMetadata.partition() + shift) % partitions;
+            }
+        }
+        ProducerRecord<String, Object> record = new ProducerRecord<>(original.topic(), partition, original.timestamp(),
+                original.key(), copy, new RecordHeaders(original.headers().toArray()));
+        try {
+            producer.send(record, (metadata, e) -> {
+                if (e != null) {
+                    failed.increment();
+                    return;
+                }
+                sent.increment();
+                writeTruth(copy.getOrderId(), originalMetadata, metadata, System.currentTimeMillis() - scheduledAt);
+            });
+        } catch (RuntimeException e) {
+            // Rule failures, or the producer was closed at shutdown
+            failed.increment();
+            logger.debug("Duplicate not sent: " + e);
+        }
+    }
+
+    private void writeTruth(int orderId, RecordMetadata original, RecordMetadata duplicate, long delayMs) {
+        if (truth == null) {
+            return;
+        }
+        synchronized (truth) {
+            if (closed) {
+                return;
+            }
+            try {
+                truth.write(orderId + "," + original.partition() + "," + original.offset() + ","
+                        + duplicate.partition() + "," + duplicate.offset() + "," + delayMs + "\n");
+            } catch (IOException e) {
+                logger.warn("Cannot write duplicate ground truth: " + e);
+            }
+        }
+    }
+
+    /**
+     * Stop injecting, drop duplicates still waiting for their delay and close the ground-truth file.
+     * Call before closing the producers. Safe to call more than once.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        int unsent = scheduler.shutdownNow().size();
+        if (truth != null) {
+            synchronized (truth) {
+                try {
+                    truth.close();
+                } catch (IOException e) {
+                    logger.warn("Cannot close duplicate ground truth: " + e);
+                }
+            }
+        }
+        if (scheduled.sum() > 0 || dropped.sum() > 0) {
+            logger.info(String.format("Duplicates: scheduled=%d sent=%d failed=%d dropped=%d unsent at exit=%d",
+                    scheduled.sum(), sent.sum(), failed.sum(), dropped.sum(), unsent));
+        }
+    }
+}
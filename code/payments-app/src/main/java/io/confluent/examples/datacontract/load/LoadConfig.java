@@ -0,0 +1,72 @@
+package io.confluent.examples.datacontract.load;
+
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+
+/**
+ * Settings for the rate-targeted load mode, read from environment variables.
+ *
+ * <ul>
+ *     <li>{@code TARGET_RATE} - events/sec across all threads (split evenly), takes precedence</li>
+ *     <li>{@code TARGET_RATE_PER_THREAD} - events/sec for each thread, 0 means unthrottled</li>
+ *     <li>{@code MAX_IN_FLIGHT} - sends awaiting an ack before a thread stops issuing new ones</li>
+ *     <li>{@code LOAD_DURATION_SEC} - how long to run, 0 means forever</li>
+ * </ul>
+ */
+public class LoadConfig {
+
+    private final double targetRate;
+    private final double targetRatePerThread;
+    private final int maxInFlight;
+    private final long durationSec;
+
+    LoadConfig(double targetRate, double targetRatePerThread, int maxInFlight, long durationSec) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("MAX_IN_FLIGHT must be positive, was " + maxInFlight);
+        }
+        this.targetRate = targetRate;
+        this.targetRatePerThread = targetRatePerThread;
+        this.maxInFlight = maxInFlight;
+        this.durationSec = durationSec;
+    }
+
+    public static LoadConfig fromEnv() {
+        return new LoadConfig(
+                ClientsUtils.getEnvDouble("TARGET_RATE", 0),
+                ClientsUtils.getEnvDouble("TARGET_RATE_PER_THREAD", 1000),
+                ClientsUtils.getEnvInt("MAX_IN_FLIGHT", 1000),
+                ClientsUtils.getEnvLong("LOAD_DURATION_SEC", 0));
+    }
+
+    /**
+     * Rate each of {@code threadCount} senders should target so the global rate is honoured.
+     */
+    public double ratePerThread(int threadCount) {
+        if (targetRate > 0) {
+            return targetRate / Math.max(1, threadCount);
+        }
+        return targetRatePerThread;
+    }
+
+    /**
+     * Same settings with a different run time, for back-to-back comparison runs.
+     */
+    public LoadConfig withDurationSec(long durationSec) {
+        return new LoadConfig(targetRate, targetRatePerThread, maxInFlight, durationSec);
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public long getDurationSec() {
+        return durationSec;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadConfig{targetRate=" + targetRate
+                + ", targetRatePerThread=" + targetRatePerThread
+                + ", maxInFlight=" + maxInFlight
+                + ", durationSec=" + durationSec + "}";
+    }
+}
@@ -0,0 +1,167 @@
+package io.confluent.examples.datacontract.load;
+
+import io.confluent.examples.datacontract.datagen.EventClock;
+import io.confluent.examples.datacontract.datagen.SaleSource;
+import io.confluent.examples.datacontract.datagen.SalesDataGen;
+import io.confluent.examples.datacontract.metrics.ProducerStats;
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.examples.datacontract.utils.PartitionStrategy;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate-targeted, non-blocking send loop.
+ *
+ * Records are issued on the {@link Pacer} schedule and handed to {@code producer.send} without waiting
+ * for the ack. A semaphore bounds the number of un-acked records so a slow cluster applies back-pressure
+ * instead of growing the producer buffer without limit; any time spent waiting shows up as pacer lag.
+ * With a transactional producer the records are committed in batches by a {@link TransactionBatcher},
+ * and no duplicates are injected, as they would be sent outside the sender's transactions.
+ */
+public class OpenLoopSender implements Runnable {
+
+    private static final Logger logger = Logger.getLogger(OpenLoopSender.class);
+
+    private final Producer<String, Object> producer;
+    private final String topic;
+    private final LoadConfig config;
+    private final double ratePerThread;
+
+    private final ProducerStats stats;
+    private final Iterable<Header> headers;
+    private final SaleSource source;
+    private final boolean transactional;
+    private final Semaphore inFlight;
+    private boolean injectDuplicates = true;
+    private double invalidRate = -1;
+
+    /**
+     * @param headers added to every record, e.g. the store name when the producer is shared; may be null
+     */
+    public OpenLoopSender(Producer<String, Object> producer, String topic, LoadConfig config, double ratePerThread,
+                          ProducerStats stats, Iterable<Header> headers) {
+        this(producer, topic, config, ratePerThread, stats, headers, null, false);
+    }
+
+    /**
+     * @param source        where records come from, e.g. a corpus cursor; null generates them live
+     * @param transactional whether {@code producer} is transactional; it must then belong to this sender only
+     */
+    public OpenLoopSender(Producer<String, Object> producer, String topic, LoadConfig config, double ratePerThread,
+                          ProducerStats stats, Iterable<Header> headers, SaleSource source, boolean transactional) {
+        this.producer = producer;
+        this.topic = topic;
+        this.config = config;
+        this.ratePerThread = ratePerThread;
+        this.stats = stats;
+        this.headers = headers;
+        this.source = source;
+        this.transactional = transactional;
+        this.inFlight = new Semaphore(config.getMaxInFlight());
+    }
+
+    /**
+     * Send no duplicates, whatever {@code DUPLICATE_RATE} says.
+     */
+    public OpenLoopSender withoutDuplicates() {
+        this.injectDuplicates = false;
+        return this;
+    }
+
+    /**
+     * Generate invalid records at {@code rate} instead of {@code INVALID_RATE}; no effect on a corpus source.
+     */
+    public OpenLoopSender withInvalidRate(double rate) {
+        this.invalidRate = rate;
+        return this;
+    }
+
+    @Override
+    public void run() {
+        EventClock clock = EventClock.get();
+        DuplicateInjector duplicates = DuplicateInjector.get();
+        DeadLetterRouter deadLetters = DeadLetterRouter.get();
+        // Created once the event clock is live; until then a backfill is sent as fast as possible
+        Pacer pacer = null;
+        long backfilled = 0;
+        long startNanos = System.nanoTime();
+        long deadline = config.getDurationSec() > 0
+                ? startNanos + TimeUnit.SECONDS.toNanos(config.getDurationSec())
+                : Long.MAX_VALUE;
+        long maxLagNanos = 0;
+        SalesDataGen generator = SalesDataGen.forCurrentThread();
+        TransactionBatcher transactions = new TransactionBatcher(producer, transactional, stats);
+        PartitionStrategy partitioning = PartitionStrategy.fromEnv();
+
+        try {
+            while (!Thread.currentThread().isInterrupted() && System.nanoTime() < deadline) {
+                long intendedNanos;
+                if (clock.isLive()) {
+                    if (pacer == null) {
+                        pacer = new Pacer(ratePerThread);
+                    }
+                    // Commit a transaction that falls due before the next send instead of holding it open
+                    if (transactions.commitDueNanos() < pacer.nextNanos()) {
+                        transactions.idleUntil(transactions.commitDueNanos());
+                    }
+                    intendedNanos = pacer.acquire();
+                } else {
+                    intendedNanos = System.nanoTime();
+                    backfilled++;
+                }
+                inFlight.acquire();
+                maxLagNanos = Math.max(maxLagNanos, System.nanoTime() - intendedNanos);
+
+                Sale sale;
+                if (source != null) {
+                    sale = source.next();
+                } else {
+                    sale = generator.nextSale(invalidRate >= 0 ? generator.nextInvalid(invalidRate)
+                            : generator.nextInvalid());
+                }
+
+                Long timestamp = clock.recordTimestamps() ? sale.getTs().toEpochMilli() : null;
+                ProducerRecord<String, Object> record =
+                        new ProducerRecord<>(topic, null, timestamp, partitioning.key(sale), sale, headers);
+                Sale duplicate = transactions.isActive() || !injectDuplicates ? null : duplicates.maybeCopy(sale);
+                transactions.beforeSend();
+                long enqueueNanos = System.nanoTime();
+                try {
+                    producer.send(record, (metadata, e) -> {
+                        inFlight.release();
+                        stats.onCompletion(intendedNanos, enqueueNanos, metadata, e);
+                        if (e != null) {
+                            logger.warn("Send failed: " + e);
+                        } else if (duplicate != null) {
+                            duplicates.schedule(producer, record, duplicate, metadata);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    // Serialization / rule failures are raised synchronously and never reach the callback
+                    inFlight.release();
+                    stats.onRejected();
+                    deadLetters.route(topic, record.key(), sale, e);
+                    logger.debug("Record rejected before send: " + e);
+                }
+                transactions.afterSend();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Committing flushes the transaction's records
+            transactions.close();
+            producer.flush();
+        }
+
+        double elapsedSec = (System.nanoTime() - startNanos) / 1e9;
+        long issued = backfilled + (pacer != null ? pacer.getIssued() : 0);
+        logger.info(String.format("%s finished: issued=%d backfilled=%d target=%.1f/s offered=%.1f/s maxLag=%dms",
+                stats.getName(), issued, backfilled, ratePerThread, issued / Math.max(elapsedSec, 1e-9),
+                TimeUnit.NANOSECONDS.toMillis(maxLagNanos)));
+    }
+}
@@ -0,0 +1,58 @@
+package io.confluent.examples.datacontract.load;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop pacing for a single sender thread.
+ *
+ * Every event gets an intended start time of {@code start + n / rate}, fixed up front and independent
+ * of how long earlier sends took. When the producer stalls, the pacer does not quietly stretch the
+ * schedule (coordinated omission); the backlog is issued as fast as possible afterwards and the
+ * returned intended time lets callers measure latency from when the event <i>should</i> have been sent.
+ */
+public class Pacer {
+
+    private final double nanosPerEvent;
+    private final long startNanos;
+    private long issued;
+
+    /**
+     * @param ratePerSec target events/sec; 0 or negative disables pacing
+     */
+    public Pacer(double ratePerSec) {
+        this.nanosPerEvent = ratePerSec > 0 ? 1_000_000_000d / ratePerSec : 0d;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Wait for the next intended send time.
+     *
+     * @return the intended send time in {@link System#nanoTime()} units
+     */
+    public long acquire() throws InterruptedException {
+        if (nanosPerEvent == 0d) {
+            issued++;
+            return System.nanoTime();
+        }
+        long intended = startNanos + (long) (issued++ * nanosPerEvent);
+        long now;
+        while ((now = System.nanoTime()) < intended) {
+            LockSupport.parkNanos(intended - now);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return intended;
+    }
+
+    /**
+     * The intended send time the next {@link #acquire()} waits for; now when pacing is disabled.
+     */
+    public long nextNanos() {
+        return nanosPerEvent == 0d ? System.nanoTime() : startNanos + (long) (issued * nanosPerEvent);
+    }
+
+    public long getIssued() {
+        return issued;
+    }
+}
@@ -0,0 +1,97 @@
+package io.confluent.examples.datacontract.load;
+
+import io.confluent.examples.datacontract.metrics.ProducerStats;
+import io.confluent.examples.datacontract.metrics.StatsReporter;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import io.confluent.examples.datacontract.utils.DeliveryMode;
+import org.apache.kafka.clients.producer.Producer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A small, fixed set of thread-safe producers shared by many senders.
+ *
+ * Senders are striped onto producers by index, so a given sender always uses the same producer and
+ * per-key ordering is preserved. Each producer gets its own client id ({@code <prefix>-<n>}) and, when
+ * a reporter is given, its own {@link ProducerStats}. A pool of size 1 is a single shared producer.
+ */
+public class ProducerPool implements AutoCloseable {
+
+    private final List<Producer<String, Object>> producers = new ArrayList<>();
+    private final List<ProducerStats> stats = new ArrayList<>();
+    private final DeliveryMode deliveryMode;
+
+    /**
+     * @param reporter registers per-producer stats; null when callers keep their own (e.g. per store)
+     */
+    public ProducerPool(int size, String clientIdPrefix, StatsReporter reporter) {
+        this(size, clientIdPrefix, reporter, new Properties());
+    }
+
+    /**
+     * @param overrides producer settings applied on top of {@link ClientsUtils#loadProducerConfig}
+     */
+    public ProducerPool(int size, String clientIdPrefix, StatsReporter reporter, Properties overrides) {
+        this(size, clientIdPrefix, reporter, overrides, DeliveryMode.fromEnv());
+    }
+
+    /**
+     * @param deliveryMode used instead of {@code DELIVERY_MODE}; each producer gets its own transactional id
+     */
+    public ProducerPool(int size, String clientIdPrefix, StatsReporter reporter, Properties overrides,
+                        DeliveryMode deliveryMode) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Producer pool size must be positive, was " + size);
+        }
+        this.deliveryMode = deliveryMode;
+        for (int i = 0; i < size; i++) {
+            String clientId = clientIdPrefix + "-" + i;
+            Properties props = ClientsUtils.loadProducerConfig(clientId, deliveryMode);
+            props.putAll(overrides);
+            Producer<String, Object> producer = ClientsUtils.createProducer(props);
+            producers.add(producer);
+            if (reporter != null) {
+                ProducerStats producerStats = reporter.register(clientId);
+                producerStats.attach(producer);
+                stats.add(producerStats);
+            }
+        }
+    }
+
+    public int size() {
+        return producers.size();
+    }
+
+    public DeliveryMode getDeliveryMode() {
+        return deliveryMode;
+    }
+
+    /**
+     * The producer serving sender {@code index}.
+     */
+    public Producer<String, Object> get(int index) {
+        return producers.get(Math.floorMod(index, producers.size()));
+    }
+
+    /**
+     * Stats of the producer serving sender {@code index}; null when the pool was built without a reporter.
+     */
+    public ProducerStats stats(int index) {
+        return stats.isEmpty() ? null : stats.get(Math.floorMod(index, stats.size()));
+    }
+
+    public void flush() {
+        for (Producer<String, Object> producer : producers) {
+            producer.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Producer<String, Object> producer : producers) {
+            producer.close();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package io.confluent.examples.datacontract.load;
+
+import com.github.javafaker.Faker;
+import io.confluent.examples.datacontract.datagen.SalesDataGen;
+import io.confluent.examples.datacontract.metrics.ProducerStats;
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import io.confluent.examples.datacontract.utils.DeliveryMode;
+import io.confluent.examples.datacontract.utils.PartitionStrategy;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulates many point-of-sale stores, each a lightweight scheduled task rather than a thread.
+ *
+ * Stores share a {@link ProducerPool}, so memory and broker connections scale with the pool size
+ * instead of the store count. Every store has its own mean rate, drawn from a log-normal distribution
+ * around {@code STORE_RATE} (small and large stores), and Poisson arrivals around that mean. Arrivals
+ * follow a fixed per-store schedule, so a slow cluster is not hidden by stretched inter-arrival times.
+ * The store name is attached to each record in the {@value #STORE_HEADER} header and per-store counts
+ * are reported at the end.
+ *
+ * <ul>
+ *     <li>{@code STORE_COUNT} - number of stores (default 1000)</li>
+ *     <li>{@code STORE_RATE} - mean events/sec per store (default 0.5, the demo rate)</li>
+ *     <li>{@code STORE_RATE_SIGMA} - spread of the log-normal store rates, 0 for identical stores (default 0.5)</li>
+ *     <li>{@code STORE_PRODUCERS} - size of the shared producer pool (default 4)</li>
+ *     <li>{@code STORE_SCHEDULER_THREADS} - threads running store tasks (default: available processors)</li>
+ *     <li>{@code MAX_IN_FLIGHT} / {@code LOAD_DURATION_SEC} - as in {@link LoadConfig}; events over the
+ *     in-flight limit are shed and counted rather than blocking the scheduler</li>
+ * </ul>
+ */
+public class StoreSimulator implements Runnable {
+
+    public static final String STORE_HEADER = "pos.store";
+
+    private static final Logger logger = Logger.getLogger(StoreSimulator.class);
+
+    private final ProducerPool pool;
+    private final String topic;
+    private final LoadConfig loadConfig;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Semaphore inFlight;
+    private final Store[] stores;
+    private final AtomicLongArray storeAcked;
+    private final LongAdder shed = new LongAdder();
+    private final PartitionStrategy partitioning = PartitionStrategy.fromEnv();
+    private volatile boolean stopped;
+
+    public StoreSimulator(ProducerPool pool, String topic, LoadConfig loadConfig) {
+        if (pool.getDeliveryMode() == DeliveryMode.TRANSACTIONAL) {
+            throw new IllegalArgumentException(
+                    "DELIVERY_MODE=transactional is not supported in store mode: stores share producers");
+        }
+        this.pool = pool;
+        this.topic = topic;
+        this.loadConfig = loadConfig;
+        this.inFlight = new Semaphore(loadConfig.getMaxInFlight());
+
+        int storeCount = ClientsUtils.getEnvInt("STORE_COUNT", 1000);
+        double meanRate = ClientsUtils.getEnvDouble("STORE_RATE", 0.5);
+        double sigma = ClientsUtils.getEnvDouble("STORE_RATE_SIGMA", 0.5);
+        int schedulerThreads = ClientsUtils.getEnvInt("STORE_SCHEDULER_THREADS",
+                Runtime.getRuntime().availableProcessors());
+        if (storeCount <= 0 || meanRate <= 0) {
+            throw new IllegalArgumentException("STORE_COUNT and STORE_RATE must be positive");
+        }
+
+        this.scheduler = new ScheduledThreadPoolExecutor(schedulerThreads);
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.storeAcked = new AtomicLongArray(storeCount);
+        this.stores = new Store[storeCount];
+
+        Faker faker = new Faker();
+        Random rates = new Random(ClientsUtils.getEnvLong("DATAGEN_SEED", System.nanoTime()));
+        for (int i = 0; i < storeCount; i++) {
+            // Log-normal with mean meanRate: a few busy flagship stores, many quiet ones
+            double rate = meanRate * Math.exp(sigma * rates.nextGaussian() - sigma * sigma / 2);
+            String name = "Pos_Store_" + faker.address().cityName().replace(' ', '_') + "_" + i;
+            stores[i] = new Store(i, name, rate, new SplittableRandom(rates.nextLong()));
+        }
+        logger.info(String.format("Simulating %d stores at %.2f events/s each on average (%.1f events/s total) "
+                        + "over %d producers and %d scheduler threads",
+                storeCount, meanRate, meanRate * storeCount, pool.size(), schedulerThreads));
+    }
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        for (Store store : stores) {
+            // Spread the first arrivals so stores do not fire in lock-step
+            store.nextNanos = now + store.nextInterArrivalNanos();
+            scheduler.schedule(store, store.nextNanos - now, TimeUnit.NANOSECONDS);
+        }
+        try {
+            if (loadConfig.getDurationSec() > 0) {
+                TimeUnit.SECONDS.sleep(loadConfig.getDurationSec());
+            } else {
+                new CountDownLatch(1).await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stopped = true;
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pool.flush();
+            reportStores();
+        }
+    }
+
+    private void send(Store store, long intendedNanos) {
+        if (!inFlight.tryAcquire()) {
+            shed.increment();
+            return;
+        }
+        Producer<String, Object> producer = pool.get(store.index);
+        ProducerStats stats = pool.stats(store.index);
+
+        SalesDataGen generator = SalesDataGen.forCurrentThread();
+        Sale sale = generator.nextSale(generator.nextInvalid());
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, null,
+                partitioning.key(sale), sale, store.headers);
+        Sale duplicate = DuplicateInjector.get().maybeCopy(sale);
+        long enqueueNanos = System.nanoTime();
+        try {
+            producer.send(record, (metadata, e) -> {
+                inFlight.release();
+                stats.onCompletion(intendedNanos, enqueueNanos, metadata, e);
+                if (e == null) {
+                    storeAcked.incrementAndGet(store.index);
+                    if (duplicate != null) {
+                        DuplicateInjector.get().schedule(producer, record, duplicate, metadata);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            stats.onRejected();
+            DeadLetterRouter.get().route(topic, record.key(), sale, e);
+            logger.debug("Record rejected before send: " + e);
+        }
+    }
+
+    private void reportStores() {
+        Integer[] order = new Integer[stores.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Collections.reverseOrder(Comparator.comparingLong(storeAcked::get)));
+        long total = 0;
+        for (int i = 0; i < stores.length; i++) {
+            total += storeAcked.get(i);
+        }
+        logger.info(String.format("Stores: %d, acked events=%d, shed (over MAX_IN_FLIGHT)=%d, "
+                        + "per-store events min=%d median=%d max=%d",
+                stores.length, total, shed.sum(),
+                storeAcked.get(order[order.length - 1]), storeAcked.get(order[order.length / 2]),
+                storeAcked.get(order[0])));
+        for (int i = 0; i < Math.min(10, order.length); i++) {
+            Store store = stores[order[i]];
+            logger.info(String.format("  %-40s rate=%.2f/s events=%d", store.name, store.rate,
+                    storeAcked.get(store.index)));
+        }
+    }
+
+    private final class Store implements Runnable {
+        final int index;
+        final String name;
+        final double rate;
+        final Iterable<Header> headers;
+        final double meanInterArrivalNanos;
+        final SplittableRandom random;
+        long nextNanos;
+
+        Store(int index, String name, double rate, SplittableRandom random) {
+            this.index = index;
+            this.name = name;
+            this.rate = rate;
+            this.headers = Collections.singletonList(
+                    new RecordHeader(STORE_HEADER, name.getBytes(StandardCharsets.UTF_8)));
+            this.meanInterArrivalNanos = 1e9 / rate;
+            this.random = random;
+        }
+
+        long nextInterArrivalNanos() {
+            // Exponential inter-arrival times give a Poisson arrival process
+            return (long) (-Math.log(1 - random.nextDouble()) * meanInterArrivalNanos);
+        }
+
+        @Override
+        public void run() {
+            if (stopped) {
+                return;
+            }
+            long intended = nextNanos;
+            send(this, intended);
+            nextNanos = intended + nextInterArrivalNanos();
+            try {
+                scheduler.schedule(this, Math.max(0, nextNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // Simulation stopped while this store was running
+            }
+        }
+    }
+}
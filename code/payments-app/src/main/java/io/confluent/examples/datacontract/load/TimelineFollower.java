@@ -0,0 +1,172 @@
+package io.confluent.examples.datacontract.load;
+
+import io.confluent.examples.datacontract.datagen.DelayDistribution;
+import io.confluent.examples.datacontract.datagen.OrderTimeline;
+import io.confluent.examples.datacontract.datagen.SalesDataGen;
+import io.confluent.examples.datacontract.metrics.ProducerStats;
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import io.confluent.examples.datacontract.utils.PartitionStrategy;
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends one payment per order in the data feeder's {@link OrderTimeline}, so the payments join the
+ * Postgres orders deliberately instead of by coincidence of two counters.
+ *
+ * Each payment is due a delay after its order, drawn from {@code PAYMENT_DELAY} / {@code PAYMENT_DELAY_MS}
+ * (see {@link DelayDistribution}, default {@code exp 5000ms}), and is sent when due with that time as
+ * {@code ts}. A fraction {@code MATCH_RATIO} (default 1.0) of payments carries the order's id and
+ * customer; the rest get order ids from {@code UNMATCHED_ORDER_ID_BASE} (default 1000000000) up, which
+ * never exist in Postgres, so their orders stay unpaid and the payments unmatched. The order rate of the
+ * feeder sets the payment rate; the number of payments waiting for their delay is the interval join's
+ * state on the payments side.
+ *
+ * <ul>
+ *     <li>{@code ORDER_TIMELINE_FILE} - the feeder's timeline file (default order-timeline.csv)</li>
+ *     <li>{@code TIMELINE_FROM_START} - also pay the orders already in the file (default false)</li>
+ *     <li>{@code TIMELINE_POLL_MS} - how often the file is checked for new orders (default 100)</li>
+ *     <li>{@code LOAD_DURATION_SEC} - as in {@link LoadConfig}; 0 follows the timeline until stopped</li>
+ * </ul>
+ */
+public class TimelineFollower implements Runnable {
+
+    private static final Logger logger = Logger.getLogger(TimelineFollower.class);
+
+    private static final class Payment {
+        final Sale sale;
+        final long dueMillis;
+
+        Payment(Sale sale, long dueMillis) {
+            this.sale = sale;
+            this.dueMillis = dueMillis;
+        }
+    }
+
+    private final Producer<String, Object> producer;
+    private final String topic;
+    private final ProducerStats stats;
+    private final boolean transactional;
+    private final long durationSec;
+
+    private final OrderTimeline timeline = new OrderTimeline(
+            Paths.get(ClientsUtils.getEnv("ORDER_TIMELINE_FILE", "order-timeline.csv")),
+            ClientsUtils.getEnvBoolean("TIMELINE_FROM_START", false));
+    private final DelayDistribution delay = DelayDistribution.fromEnv("PAYMENT", "exp", 5000);
+    private final double matchRatio = ClientsUtils.getEnvDouble("MATCH_RATIO", 1.0);
+    private final long pollMillis = ClientsUtils.getEnvLong("TIMELINE_POLL_MS", 100);
+    private int nextUnmatchedOrderId = ClientsUtils.getEnvInt("UNMATCHED_ORDER_ID_BASE", 1_000_000_000);
+
+    private final PriorityQueue<Payment> pending = new PriorityQueue<>(Comparator.comparingLong(p -> p.dueMillis));
+    private final Histogram delays = new Histogram(3);
+    private long orders, matched, unmatched, maxPending;
+
+    /**
+     * @param transactional whether {@code producer} is transactional; it must then belong to this follower only
+     */
+    public TimelineFollower(Producer<String, Object> producer, String topic, LoadConfig config, ProducerStats stats,
+                            boolean transactional) {
+        this.producer = producer;
+        this.topic = topic;
+        this.stats = stats;
+        this.transactional = transactional;
+        this.durationSec = config.getDurationSec();
+    }
+
+    @Override
+    public void run() {
+        logger.info(String.format("Paying orders from the timeline: match ratio %.2f, delay %s", matchRatio, delay));
+        SalesDataGen generator = SalesDataGen.forCurrentThread();
+        SplittableRandom random = new SplittableRandom();
+        PartitionStrategy partitioning = PartitionStrategy.fromEnv();
+        TransactionBatcher transactions = new TransactionBatcher(producer, transactional, stats);
+        DeadLetterRouter deadLetters = DeadLetterRouter.get();
+        long deadline = durationSec > 0
+                ? System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSec)
+                : Long.MAX_VALUE;
+
+        try {
+            while (!Thread.currentThread().isInterrupted() && System.nanoTime() < deadline) {
+                transactions.maybeCommit();
+                for (OrderTimeline.Order order : timeline.poll()) {
+                    orders++;
+                    long delayMillis = delay.nextMillis();
+                    delays.recordValue(delayMillis);
+                    boolean match = random.nextDouble() < matchRatio;
+                    int orderId = match ? order.orderId : nextUnmatchedOrderId++;
+                    if (match) {
+                        matched++;
+                    } else {
+                        unmatched++;
+                    }
+                    long due = order.orderMillis + delayMillis;
+                    pending.add(new Payment(generator.paymentFor(orderId, order.customerId, due,
+                            generator.nextInvalid()), due));
+                }
+                maxPending = Math.max(maxPending, pending.size());
+
+                long now = System.currentTimeMillis();
+                while (!pending.isEmpty() && pending.peek().dueMillis <= now) {
+                    Payment payment = pending.poll();
+                    send(payment, now, partitioning, transactions, deadLetters);
+                }
+
+                long wait = pending.isEmpty() ? pollMillis : Math.min(pollMillis, pending.peek().dueMillis - now);
+                if (wait > 0) {
+                    // Commits a transaction that falls due while waiting for the next payment
+                    transactions.idleUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(wait));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Cannot read the order timeline: " + e);
+        } finally {
+            transactions.close();
+            producer.flush();
+            try {
+                timeline.close();
+            } catch (IOException e) {
+                logger.warn("Cannot close the order timeline: " + e);
+            }
+        }
+
+        logger.info(String.format("%s finished: orders=%d matched=%d unmatched=%d still pending=%d max pending=%d "
+                        + "malformed lines=%d delay ms p50=%d p99=%d max=%d",
+                stats.getName(), orders, matched, unmatched, pending.size(), maxPending,
+                timeline.malformedLines(), delays.getValueAtPercentile(50), delays.getValueAtPercentile(99),
+                delays.getMaxValue()));
+    }
+
+    private void send(Payment payment, long nowMillis, PartitionStrategy partitioning,
+                      TransactionBatcher transactions, DeadLetterRouter deadLetters) {
+        Sale sale = payment.sale;
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, partitioning.key(sale), sale);
+        // Measure from when the payment was due, so a slow cluster or a late poll shows up in the latency
+        long intendedNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(nowMillis - payment.dueMillis);
+        long enqueueNanos = System.nanoTime();
+        transactions.beforeSend();
+        try {
+            producer.send(record, (metadata, e) -> {
+                stats.onCompletion(intendedNanos, enqueueNanos, metadata, e);
+                if (e != null) {
+                    logger.warn("Send failed: " + e);
+                }
+            });
+        } catch (RuntimeException e) {
+            stats.onRejected();
+            deadLetters.route(topic, record.key(), sale, e);
+            logger.debug("Payment rejected before send: " + e);
+        }
+        transactions.afterSend();
+    }
+}
@@ -0,0 +1,169 @@
+package io.confluent.examples.datacontract.load;
+
+import io.confluent.examples.datacontract.metrics.ProducerStats;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups one sender's records into transactions when its producer is transactional
+ * ({@code DELIVERY_MODE=transactional}); does nothing otherwise, so senders can always use one.
+ *
+ * A transaction is opened before the first send and committed after {@code TXN_BATCH_RECORDS} records
+ * (default 1000) or once it has been open {@code TXN_BATCH_MS} (default 100), and on {@link #close()}.
+ * The record limit is checked on each send; the time limit also while the sender is idle, as long as it
+ * waits through {@link #idleUntil} or calls {@link #maybeCommit}, so a slow sender never holds a
+ * transaction open until {@code transaction.timeout.ms} aborts it. Commit latency goes to the sender's
+ * {@link ProducerStats}.
+ *
+ * A commit that times out is retried, up to {@code TXN_COMMIT_ATTEMPTS} attempts (default 3). Any other
+ * failed commit is aborted and counted; its records are lost, as the load loops do not resend. When the
+ * abort fails too, or the retries run out, the producer is unusable: the error is rethrown and the
+ * batcher does nothing more, so senders should stop.
+ *
+ * Transactions belong to the producer, not the thread, so the batcher owns the transactions of its
+ * producer: a transactional producer must not be shared between senders, nor get a second batcher.
+ */
+public class TransactionBatcher implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(TransactionBatcher.class);
+
+    private final Producer<?, ?> producer;
+    private final ProducerStats stats;
+    private final boolean active;
+    private final int maxRecords = ClientsUtils.getEnvInt("TXN_BATCH_RECORDS", 1000);
+    private final long maxNanos = TimeUnit.MILLISECONDS.toNanos(ClientsUtils.getEnvLong("TXN_BATCH_MS", 100));
+    private final int commitAttempts = Math.max(1, ClientsUtils.getEnvInt("TXN_COMMIT_ATTEMPTS", 3));
+
+    private boolean open;
+    private boolean failed;
+    private int records;
+    private long openedNanos;
+
+    /**
+     * @param transactional whether {@code producer} was created with a {@code transactional.id}
+     *                      (see {@link ClientsUtils#isTransactional}); when false the batcher does nothing
+     */
+    public TransactionBatcher(Producer<?, ?> producer, boolean transactional, ProducerStats stats) {
+        this.producer = producer;
+        this.stats = stats;
+        this.active = transactional;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Whether a commit failed fatally; the producer must then be closed.
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public void beforeSend() {
+        if (active && !failed && !open) {
+            producer.beginTransaction();
+            open = true;
+            records = 0;
+            openedNanos = System.nanoTime();
+        }
+    }
+
+    public void afterSend() {
+        if (open && ++records >= maxRecords) {
+            commit();
+        } else {
+            maybeCommit();
+        }
+    }
+
+    /**
+     * Commit the open transaction if it has been open for {@code TXN_BATCH_MS}.
+     */
+    public void maybeCommit() {
+        if (open && System.nanoTime() - openedNanos >= maxNanos) {
+            commit();
+        }
+    }
+
+    /**
+     * When the open transaction is due for commit, in {@link System#nanoTime()} units; {@link Long#MAX_VALUE}
+     * when none is open.
+     */
+    public long commitDueNanos() {
+        return open ? openedNanos + maxNanos : Long.MAX_VALUE;
+    }
+
+    /**
+     * Sleep until {@code deadlineNanos}, committing the open transaction when it falls due in the meantime.
+     */
+    public void idleUntil(long deadlineNanos) throws InterruptedException {
+        long now;
+        while ((now = System.nanoTime()) < deadlineNanos) {
+            long due = commitDueNanos();
+            if (due <= now) {
+                commit();
+            } else {
+                TimeUnit.NANOSECONDS.sleep(Math.min(due, deadlineNanos) - now);
+            }
+        }
+        maybeCommit();
+    }
+
+    /**
+     * Commit the open transaction, if any. A commit timeout is retried; other errors abort the
+     * transaction, and are rethrown when the abort fails as well (fenced, out of sequence, not authorized
+     * and other fatal errors).
+     */
+    public void commit() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        long start = System.nanoTime();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    producer.commitTransaction();
+                    break;
+                } catch (TimeoutException e) {
+                    // The commit may still complete: it must be retried, not aborted
+                    if (attempt >= commitAttempts) {
+                        throw e;
+                    }
+                    logger.warn("Transaction commit timed out, retrying (attempt " + attempt + "): " + e);
+                }
+            }
+            stats.onCommit(start);
+        } catch (TimeoutException e) {
+            throw fail(e);
+        } catch (KafkaException e) {
+            logger.warn("Transaction commit failed, aborting " + records + " records: " + e);
+            try {
+                producer.abortTransaction();
+            } catch (KafkaException abortFailure) {
+                e.addSuppressed(abortFailure);
+                throw fail(e);
+            }
+            stats.onAbort();
+        }
+    }
+
+    private KafkaException fail(KafkaException e) {
+        failed = true;
+        logger.error("Transaction failed fatally, the producer cannot be used any more: " + e);
+        return e;
+    }
+
+    @Override
+    public void close() {
+        if (active && !failed) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.confluent.examples.datacontract.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The event-time disorder actually injected by {@link io.confluent.examples.datacontract.datagen.DisorderModel},
+ * reported by {@link StatsReporter}. Delays are recorded in milliseconds.
+ *
+ * {@code late} counts records delayed by more than the watermark bound; {@code behind} counts records
+ * whose {@code ts} ended up more than the bound below the newest {@code ts} already generated for the
+ * same partition, which is what a bounded-out-of-orderness watermark would treat as late.
+ */
+public class DisorderStats {
+
+    private static final Recorder delay = new Recorder(3);
+    private static final LongAdder records = new LongAdder();
+    private static final LongAdder late = new LongAdder();
+    private static final LongAdder behind = new LongAdder();
+
+    // Reader-side state, only used by the reporter thread
+    private static final Histogram totalDelay = new Histogram(3);
+    private static Histogram recycled;
+
+    private DisorderStats() {
+    }
+
+    public static void record(long delayMillis, boolean lateRecord, boolean behindWatermark) {
+        delay.recordValue(delayMillis);
+        records.increment();
+        if (lateRecord) {
+            late.increment();
+        }
+        if (behindWatermark) {
+            behind.increment();
+        }
+    }
+
+    static synchronized String totalLine() {
+        recycled = delay.getIntervalHistogram(recycled);
+        totalDelay.add(recycled);
+        long r = records.sum();
+        if (r == 0) {
+            return null;
+        }
+        Histogram h = totalDelay;
+        return String.format("disorder: records=%d late=%d (%.3f%%) behind watermark=%d (%.3f%%) "
+                        + "delay [ms] p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                r, late.sum(), 100.0 * late.sum() / r, behind.sum(), 100.0 * behind.sum() / r,
+                h.getValueAtPercentile(50), h.getValueAtPercentile(90), h.getValueAtPercentile(99),
+                h.getValueAtPercentile(99.9), h.getMaxValue());
+    }
+}
@@ -0,0 +1,98 @@
+package io.confluent.examples.datacontract.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide cost of the field encryption rule, fed by
+ * {@link io.confluent.examples.datacontract.rules.TimedFieldEncryptionExecutor} and reported by
+ * {@link StatsReporter}. Latencies are recorded in microseconds.
+ *
+ * Next to the per-record latency it counts what the rule actually called: DEK lookups and creates on the
+ * DEK registry client, and KEK encrypts (a new DEK) and decrypts (a fetched DEK) on the KMS.
+ */
+public class EncryptionStats {
+
+    private static final Recorder latency = new Recorder(3);
+    private static final LongAdder records = new LongAdder();
+    private static final LongAdder failures = new LongAdder();
+    private static final LongAdder dekLookups = new LongAdder();
+    private static final LongAdder dekCreates = new LongAdder();
+    private static final LongAdder kmsEncrypts = new LongAdder();
+    private static final LongAdder kmsDecrypts = new LongAdder();
+
+    // Reader-side state, only used by the reporter thread
+    private static final Histogram totalLatency = new Histogram(3);
+    private static Histogram recycled;
+    private static long[] last = new long[5];
+
+    private EncryptionStats() {
+    }
+
+    public static void record(long startNanos, boolean failed) {
+        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        records.increment();
+        if (failed) {
+            failures.increment();
+        }
+    }
+
+    public static void onDekLookup() {
+        dekLookups.increment();
+    }
+
+    public static void onDekCreate() {
+        dekCreates.increment();
+    }
+
+    public static void onKmsEncrypt() {
+        kmsEncrypts.increment();
+    }
+
+    public static void onKmsDecrypt() {
+        kmsDecrypts.increment();
+    }
+
+    public static long records() {
+        return records.sum();
+    }
+
+    public static long failures() {
+        return failures.sum();
+    }
+
+    private static long[] counts() {
+        return new long[]{records.sum(), dekLookups.sum(), dekCreates.sum(), kmsEncrypts.sum(), kmsDecrypts.sum()};
+    }
+
+    /**
+     * One line for the records encrypted since the previous call, or null when there were none.
+     */
+    static synchronized String intervalLine() {
+        recycled = latency.getIntervalHistogram(recycled);
+        totalLatency.add(recycled);
+        long[] now = counts();
+        long[] delta = new long[now.length];
+        for (int i = 0; i < now.length; i++) {
+            delta[i] = now[i] - last[i];
+        }
+        last = now;
+        if (delta[0] == 0) {
+            return null;
+        }
+        return line(delta, recycled);
+    }
+
+    static synchronized String totalLine() {
+        intervalLine();
+        return records() == 0 ? null : line(counts(), totalLatency) + " failures=" + failures();
+    }
+
+    private static String line(long[] counts, Histogram h) {
+        return String.format("encryption: records=%d dek lookups=%d creates=%d kms encrypts=%d decrypts=%d"
+                        + " latency %s", counts[0], counts[1], counts[2], counts[3], counts[4], StatsReporter.percentiles(h));
+    }
+}
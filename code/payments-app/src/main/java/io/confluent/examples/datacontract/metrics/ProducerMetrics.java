@@ -0,0 +1,33 @@
+package io.confluent.examples.datacontract.metrics;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+
+import java.util.Map;
+
+/**
+ * Lookup of the Kafka producer's own client metrics (group {@code producer-metrics}).
+ */
+public class ProducerMetrics {
+
+    private static final String GROUP = "producer-metrics";
+
+    /**
+     * Current value of producer metric {@code name}, or NaN when the metric is missing or the producer is closed.
+     */
+    public static double value(Producer<?, ?> producer, String name) {
+        try {
+            for (Map.Entry<MetricName, ? extends Metric> entry : producer.metrics().entrySet()) {
+                MetricName metricName = entry.getKey();
+                if (name.equals(metricName.name()) && GROUP.equals(metricName.group())) {
+                    Object value = entry.getValue().metricValue();
+                    return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Producer already closed
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,174 @@
+package io.confluent.examples.datacontract.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Send statistics for one producing thread.
+ *
+ * Writers (the sending thread and the producer's I/O thread running callbacks) only touch
+ * {@link Recorder}s and {@link LongAdder}s, so recording is wait-free. A single reader,
+ * {@link StatsReporter}, drains interval histograms and keeps the run totals.
+ * Latencies are recorded in microseconds.
+ */
+public class ProducerStats {
+
+    private final String name;
+    private final long startNanos = System.nanoTime();
+
+    // enqueue (producer.send) to ack
+    private final Recorder ackLatency = new Recorder(3);
+    // intended send time to ack; differs from ackLatency only when a pacer is behind schedule
+    private final Recorder scheduleLatency = new Recorder(3);
+    private final Map<Integer, Recorder> partitionAckLatency = new ConcurrentHashMap<>();
+
+    // commitTransaction() duration, transactional delivery mode only
+    private final Recorder commitLatency = new Recorder(3);
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder aborts = new LongAdder();
+
+    private final LongAdder events = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private volatile Producer<?, ?> producer;
+
+    // Reader-side state, only used by the reporter thread
+    final Histogram totalAckLatency = new Histogram(3);
+    final Histogram totalScheduleLatency = new Histogram(3);
+    final Map<Integer, Histogram> totalPartitionAckLatency = new ConcurrentHashMap<>();
+    final Histogram totalCommitLatency = new Histogram(3);
+    private Histogram recycledAck, recycledSchedule;
+    long lastEvents, lastBytes, lastErrors;
+
+    public ProducerStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Producer whose client metrics (retries) are included in reports.
+     */
+    public void attach(Producer<?, ?> producer) {
+        this.producer = producer;
+    }
+
+    /**
+     * Record the outcome of a send.
+     *
+     * @param intendedNanos when the record should have been sent, same as {@code enqueueNanos} when unpaced
+     * @param enqueueNanos  when {@code producer.send} was called
+     */
+    public void onCompletion(long intendedNanos, long enqueueNanos, RecordMetadata metadata, Exception e) {
+        if (e != null) {
+            errors.increment();
+            return;
+        }
+        long now = System.nanoTime();
+        long ackMicros = TimeUnit.NANOSECONDS.toMicros(now - enqueueNanos);
+        ackLatency.recordValue(ackMicros);
+        scheduleLatency.recordValue(TimeUnit.NANOSECONDS.toMicros(now - intendedNanos));
+        partitionAckLatency.computeIfAbsent(metadata.partition(), p -> new Recorder(3)).recordValue(ackMicros);
+
+        events.increment();
+        bytes.add(Math.max(0, metadata.serializedKeySize()) + Math.max(0, metadata.serializedValueSize()));
+    }
+
+    /**
+     * A record that failed before reaching the producer buffer, e.g. on serialization.
+     */
+    public void onRejected() {
+        errors.increment();
+    }
+
+    /**
+     * A transaction committed; {@code startNanos} is when {@code commitTransaction} was called.
+     */
+    public void onCommit(long startNanos) {
+        commitLatency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        commits.increment();
+    }
+
+    public void onAbort() {
+        aborts.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    long events() {
+        return events.sum();
+    }
+
+    long bytes() {
+        return bytes.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long commits() {
+        return commits.sum();
+    }
+
+    long aborts() {
+        return aborts.sum();
+    }
+
+    /**
+     * Total record retries reported by the attached producer, or -1 when unknown.
+     */
+    long retries() {
+        Producer<?, ?> p = producer;
+        if (p == null) {
+            return -1;
+        }
+        double retries = ProducerMetrics.value(p, "record-retry-total");
+        return Double.isNaN(retries) ? -1 : (long) retries;
+    }
+
+    Producer<?, ?> producer() {
+        return producer;
+    }
+
+    /**
+     * Drain the ack latency recorded since the last call and fold it into the run totals.
+     */
+    Histogram intervalAckLatency() {
+        recycledAck = ackLatency.getIntervalHistogram(recycledAck);
+        totalAckLatency.add(recycledAck);
+        return recycledAck;
+    }
+
+    Histogram intervalScheduleLatency() {
+        recycledSchedule = scheduleLatency.getIntervalHistogram(recycledSchedule);
+        totalScheduleLatency.add(recycledSchedule);
+        return recycledSchedule;
+    }
+
+    void drainCommitLatency() {
+        totalCommitLatency.add(commitLatency.getIntervalHistogram());
+    }
+
+    /**
+     * Fold the per-partition ack latency recorded since the last call into the per-partition totals.
+     */
+    void drainPartitions() {
+        for (Map.Entry<Integer, Recorder> entry : partitionAckLatency.entrySet()) {
+            Histogram interval = entry.getValue().getIntervalHistogram();
+            totalPartitionAckLatency.computeIfAbsent(entry.getKey(), p -> new Histogram(3)).add(interval);
+        }
+    }
+}
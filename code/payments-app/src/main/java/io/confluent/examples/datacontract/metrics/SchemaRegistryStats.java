@@ -0,0 +1,69 @@
+package io.confluent.examples.datacontract.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide count of Schema Registry HTTP calls by endpoint, fed by
+ * {@link io.confluent.examples.datacontract.utils.CountingRestService}, and of latest-version lookups
+ * answered from the pre-fetched snapshot instead. Reported by {@link StatsReporter}.
+ *
+ * Only the schema client is counted; the DEK registry used by field encryption has its own client.
+ */
+public class SchemaRegistryStats {
+
+    private static final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+    private static final LongAdder snapshotHits = new LongAdder();
+
+    // Reader-side state, only used by the reporter thread
+    private static long lastCalls;
+
+    private SchemaRegistryStats() {
+    }
+
+    public static void onCall(String endpoint) {
+        calls.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+    }
+
+    public static void onSnapshotHit() {
+        snapshotHits.increment();
+    }
+
+    public static long calls() {
+        long total = 0;
+        for (LongAdder adder : calls.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    /**
+     * A line when registry calls happened since the previous call, or null. Calls after startup mean
+     * a lookup reached the registry mid-stream.
+     */
+    static synchronized String intervalLine() {
+        long total = calls();
+        long delta = total - lastCalls;
+        lastCalls = total;
+        return delta == 0 ? null : "schema registry: " + delta + " http call(s) " + byEndpoint();
+    }
+
+    static synchronized String totalLine() {
+        long total = calls();
+        long hits = snapshotHits.sum();
+        if (total == 0 && hits == 0) {
+            return null;
+        }
+        return String.format("schema registry: http calls=%d %s snapshot lookups=%d", total, byEndpoint(), hits);
+    }
+
+    private static Map<String, Long> byEndpoint() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : calls.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,209 @@
+package io.confluent.examples.datacontract.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.log4j.Logger;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically logs interval snapshots of every registered {@link ProducerStats} plus an aggregate line,
+ * and a final summary with run-total percentiles per thread and per partition on {@link #close()}.
+ * The run totals stay readable through the getters after closing, for comparison runs.
+ *
+ * Set {@code STATS_INTERVAL_SEC} to change the reporting interval (0 disables interval snapshots).
+ */
+public class StatsReporter implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(StatsReporter.class);
+
+    private final List<ProducerStats> stats = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    private final long startNanos = System.nanoTime();
+    private long lastReportNanos = startNanos;
+    private boolean closed;
+
+    // Run totals, available after close()
+    private final Histogram totalAckLatency = new Histogram(3);
+    private final Histogram totalCommitLatency = new Histogram(3);
+    private long totalEvents, totalBytes, totalErrors, totalCommits, totalAborts;
+    private double totalSeconds;
+
+    public StatsReporter(long intervalSec) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stats-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        if (intervalSec > 0) {
+            scheduler.scheduleAtFixedRate(this::reportInterval, intervalSec, intervalSec, TimeUnit.SECONDS);
+        }
+    }
+
+    public ProducerStats register(String name) {
+        ProducerStats producerStats = new ProducerStats(name);
+        stats.add(producerStats);
+        return producerStats;
+    }
+
+    private synchronized void reportInterval() {
+        long now = System.nanoTime();
+        double seconds = Math.max((now - lastReportNanos) / 1e9, 1e-9);
+        lastReportNanos = now;
+
+        Histogram aggregate = new Histogram(3);
+        long events = 0, bytes = 0, errors = 0;
+        for (ProducerStats s : stats) {
+            Histogram ack = s.intervalAckLatency();
+            s.intervalScheduleLatency();
+            s.drainPartitions();
+            s.drainCommitLatency();
+            aggregate.add(ack);
+
+            long sEvents = s.events(), sBytes = s.bytes(), sErrors = s.errors();
+            long dEvents = sEvents - s.lastEvents, dBytes = sBytes - s.lastBytes, dErrors = sErrors - s.lastErrors;
+            s.lastEvents = sEvents;
+            s.lastBytes = sBytes;
+            s.lastErrors = sErrors;
+            events += dEvents;
+            bytes += dBytes;
+            errors += dErrors;
+
+            if (stats.size() > 1) {
+                logger.info(line("interval " + s.getName(), dEvents, dBytes, dErrors, s.retries(), seconds, ack));
+            }
+        }
+        logger.info(line("interval TOTAL", events, bytes, errors, -1, seconds, aggregate));
+        String encryption = EncryptionStats.intervalLine();
+        if (encryption != null) {
+            logger.info("interval " + encryption);
+        }
+        String registry = SchemaRegistryStats.intervalLine();
+        if (registry != null) {
+            logger.info("interval " + registry);
+        }
+    }
+
+    /**
+     * Print the final summary; stops interval reporting. Safe to call more than once.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        scheduler.shutdownNow();
+        // Pick up whatever was recorded since the last interval
+        reportInterval();
+
+        double seconds = Math.max((System.nanoTime() - startNanos) / 1e9, 1e-9);
+        Histogram aggregate = totalAckLatency;
+        Histogram aggregateSchedule = new Histogram(3);
+        Map<Integer, Histogram> partitions = new TreeMap<>();
+        // Several threads may share one producer: count each producer's retries once
+        Set<Producer<?, ?>> producers = Collections.newSetFromMap(new IdentityHashMap<>());
+        long events = 0, bytes = 0, errors = 0, retries = 0;
+
+        logger.info("==================== Producer summary ====================");
+        for (ProducerStats s : stats) {
+            aggregate.add(s.totalAckLatency);
+            aggregateSchedule.add(s.totalScheduleLatency);
+            for (Map.Entry<Integer, Histogram> entry : s.totalPartitionAckLatency.entrySet()) {
+                partitions.computeIfAbsent(entry.getKey(), p -> new Histogram(3)).add(entry.getValue());
+            }
+            totalCommitLatency.add(s.totalCommitLatency);
+            totalCommits += s.commits();
+            totalAborts += s.aborts();
+            events += s.events();
+            bytes += s.bytes();
+            errors += s.errors();
+            long sRetries = s.retries();
+            if (s.producer() != null && producers.add(s.producer())) {
+                retries += Math.max(0, sRetries);
+            }
+            logger.info(line("thread " + s.getName(), s.events(), s.bytes(), s.errors(), sRetries,
+                    (System.nanoTime() - s.getStartNanos()) / 1e9, s.totalAckLatency));
+        }
+        for (Map.Entry<Integer, Histogram> entry : partitions.entrySet()) {
+            Histogram h = entry.getValue();
+            logger.info(String.format("partition %3d: events=%d %s",
+                    entry.getKey(), h.getTotalCount(), percentiles(h)));
+        }
+        logger.info(line("TOTAL", events, bytes, errors, retries, seconds, aggregate));
+        totalEvents = events;
+        totalBytes = bytes;
+        totalErrors = errors;
+        totalSeconds = seconds;
+        logger.info("TOTAL intended-to-ack (coordinated omission corrected): " + percentiles(aggregateSchedule));
+        if (totalCommits > 0 || totalAborts > 0) {
+            logger.info(String.format("TOTAL transactions: commits=%d aborts=%d commit latency %s",
+                    totalCommits, totalAborts, percentiles(totalCommitLatency)));
+        }
+        String encryption = EncryptionStats.totalLine();
+        if (encryption != null) {
+            logger.info("TOTAL " + encryption);
+        }
+        String registry = SchemaRegistryStats.totalLine();
+        if (registry != null) {
+            logger.info("TOTAL " + registry);
+        }
+        String disorder = DisorderStats.totalLine();
+        if (disorder != null) {
+            logger.info("TOTAL " + disorder);
+        }
+    }
+
+    public synchronized Histogram getTotalAckLatency() {
+        return totalAckLatency;
+    }
+
+    public synchronized Histogram getTotalCommitLatency() {
+        return totalCommitLatency;
+    }
+
+    public synchronized long getTotalCommits() {
+        return totalCommits;
+    }
+
+    public synchronized long getTotalEvents() {
+        return totalEvents;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized long getTotalErrors() {
+        return totalErrors;
+    }
+
+    public synchronized double getTotalSeconds() {
+        return totalSeconds;
+    }
+
+    private static String line(String label, long events, long bytes, long errors, long retries,
+                               double seconds, Histogram latency) {
+        return String.format("%s: %.1f events/s %.2f MB/s events=%d errors=%d retries=%s ack latency %s",
+                label, events / seconds, bytes / seconds / (1024 * 1024), events, errors,
+                retries < 0 ? "n/a" : String.valueOf(retries), percentiles(latency));
+    }
+
+    static String percentiles(Histogram h) {
+        if (h.getTotalCount() == 0) {
+            return "[no samples]";
+        }
+        return String.format("[us] p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                h.getValueAtPercentile(50), h.getValueAtPercentile(90), h.getValueAtPercentile(99),
+                h.getValueAtPercentile(99.9), h.getMaxValue());
+    }
+}
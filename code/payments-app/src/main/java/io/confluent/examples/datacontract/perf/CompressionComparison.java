@@ -0,0 +1,66 @@
+package io.confluent.examples.datacontract.perf;
+
+import io.confluent.examples.datacontract.load.LoadConfig;
+import io.confluent.examples.datacontract.load.ProducerPool;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Sends generated {@code Sale} records to the configured cluster once per compression codec and reports
+ * what each costs and saves: wire bytes per record, compression ratio, batch size and throughput.
+ *
+ * Runs on top of the selected {@code PRODUCER_PROFILE}, overriding only {@code compression.type}.
+ * Compression works per batch, so use a profile with some linger (balanced/throughput) for realistic
+ * numbers.
+ *
+ * <ul>
+ *     <li>{@code COMPRESSION_CODECS} - comma separated codecs to compare (default none,lz4,zstd,snappy)</li>
+ *     <li>{@code COMPARISON_THREADS} - sender threads sharing one producer (default 4)</li>
+ *     <li>{@code LOAD_DURATION_SEC} - run time per codec (default 60)</li>
+ *     <li>{@code TARGET_RATE} / {@code TARGET_RATE_PER_THREAD} / {@code MAX_IN_FLIGHT} - as in {@link LoadConfig}</li>
+ * </ul>
+ */
+public class CompressionComparison {
+
+    private static final String TOPIC = "payments";
+
+    public static void main(String[] args) throws Exception {
+        String[] codecs = ClientsUtils.getEnv("COMPRESSION_CODECS", "none,lz4,zstd,snappy").split(",");
+        int threads = ClientsUtils.getEnvInt("COMPARISON_THREADS", 4);
+        LoadConfig config = LoadConfig.fromEnv();
+        if (config.getDurationSec() <= 0) {
+            config = config.withDurationSec(60);
+        }
+
+        List<SenderRun.Result> results = new ArrayList<>();
+        for (String codec : codecs) {
+            codec = codec.trim();
+            System.out.println("Running compression.type=" + codec + " for " + config.getDurationSec() + "s");
+            Properties overrides = new Properties();
+            overrides.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, codec);
+            try (ProducerPool pool = new ProducerPool(1, "compression-" + codec, null, overrides)) {
+                List<Producer<String, Object>> producers = new ArrayList<>();
+                producers.add(pool.get(0));
+                results.add(SenderRun.run(codec, producers, threads, config, TOPIC));
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-8s %12s %14s %14s %12s %14s %10s%n", "codec", "events/s", "record bytes",
+                "wire bytes/rec", "ratio", "batch bytes", "p99 us");
+        for (SenderRun.Result r : results) {
+            double records = r.metric("record-send-total");
+            System.out.printf("%-8s %12.1f %14.1f %14.1f %12.3f %14.1f %10d%n",
+                    r.label, r.eventsPerSec(), r.metric("record-size-avg"),
+                    r.metric("outgoing-byte-total") / Math.max(records, 1),
+                    r.metric("compression-rate-avg"), r.metric("batch-size-avg"),
+                    r.ackLatency.getValueAtPercentile(99));
+        }
+        System.out.println("wire bytes/rec includes request and batch overhead; ratio is compressed/uncompressed batch size");
+    }
+}
@@ -0,0 +1,69 @@
+package io.confluent.examples.datacontract.perf;
+
+import io.confluent.examples.datacontract.load.LoadConfig;
+import io.confluent.examples.datacontract.load.ProducerPool;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import io.confluent.examples.datacontract.utils.DeliveryMode;
+import org.apache.kafka.clients.producer.Producer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Sends generated {@code Sale} records to the configured cluster once per {@link DeliveryMode} and reports
+ * what each guarantee costs: throughput, ack latency, retries and, for transactions, commit latency.
+ *
+ * Every sender thread has its own producer, as transactional producers cannot be shared, so all modes
+ * run with the same number of connections. Transaction size is set with {@code TXN_BATCH_RECORDS} /
+ * {@code TXN_BATCH_MS}; run again with other values to see how commit frequency trades against latency.
+ *
+ * <ul>
+ *     <li>{@code DELIVERY_MODES} - comma separated modes to compare (default at-least-once,idempotent,transactional)</li>
+ *     <li>{@code COMPARISON_THREADS} - sender threads, one producer each (default 4)</li>
+ *     <li>{@code LOAD_DURATION_SEC} - run time per mode (default 60)</li>
+ *     <li>{@code TARGET_RATE} / {@code TARGET_RATE_PER_THREAD} / {@code MAX_IN_FLIGHT} - as in {@link LoadConfig}</li>
+ * </ul>
+ */
+public class DeliveryModeComparison {
+
+    private static final String TOPIC = "payments";
+
+    public static void main(String[] args) throws Exception {
+        String[] modes = ClientsUtils.getEnv("DELIVERY_MODES", "at-least-once,idempotent,transactional").split(",");
+        int threads = ClientsUtils.getEnvInt("COMPARISON_THREADS", 4);
+        LoadConfig config = LoadConfig.fromEnv();
+        if (config.getDurationSec() <= 0) {
+            config = config.withDurationSec(60);
+        }
+
+        List<SenderRun.Result> results = new ArrayList<>();
+        for (String name : modes) {
+            DeliveryMode mode = DeliveryMode.parse(name);
+            System.out.println("Running DELIVERY_MODE=" + mode.label() + " for " + config.getDurationSec() + "s");
+            try (ProducerPool pool = new ProducerPool(threads, "delivery-" + mode.label(), null,
+                    new Properties(), mode)) {
+                List<Producer<String, Object>> producers = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    producers.add(pool.get(i));
+                }
+                results.add(SenderRun.run(mode.label(), producers, threads, config, TOPIC,
+                        mode == DeliveryMode.TRANSACTIONAL));
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-14s %12s %10s %10s %10s %10s %14s %14s%n", "mode", "events/s", "p50 us",
+                "p99 us", "retries", "commits", "commit p50 us", "commit p99 us");
+        for (SenderRun.Result r : results) {
+            boolean committed = r.commits > 0;
+            System.out.printf("%-14s %12.1f %10d %10d %10.0f %10d %14s %14s%n",
+                    r.label, r.eventsPerSec(), r.ackLatency.getValueAtPercentile(50),
+                    r.ackLatency.getValueAtPercentile(99), r.metric("record-retry-total"), r.commits,
+                    committed ? String.valueOf(r.commitLatency.getValueAtPercentile(50)) : "-",
+                    committed ? String.valueOf(r.commitLatency.getValueAtPercentile(99)) : "-");
+        }
+        System.out.println("Transactional ack latency is until the broker acks the record; "
+                + "read_committed consumers see it only after the commit");
+    }
+}
@@ -0,0 +1,72 @@
+package io.confluent.examples.datacontract.perf;
+
+import io.confluent.examples.datacontract.datagen.SalesDataGen;
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Offline report of how the configured {@code CUSTOMER_DIST} / {@code PRODUCT_DIST} skew spreads over
+ * partitions, without a cluster.
+ *
+ * Generates {@code SKEW_SAMPLE} records (default 1,000,000) and, for the order id (the Kafka key), the
+ * customer id and the product id, hashes each value like the Kafka default partitioner onto
+ * {@code SKEW_PARTITIONS} partitions (default 6). For each it prints the distinct values seen, the share
+ * of the hottest value and of the top 1% of values, the per-partition share, and the max/mean partition
+ * load, where 1.0 is perfectly even.
+ */
+public class KeySkewReport {
+
+    public static void main(String[] args) {
+        int sample = ClientsUtils.getEnvInt("SKEW_SAMPLE", 1_000_000);
+        int partitions = ClientsUtils.getEnvInt("SKEW_PARTITIONS", 6);
+        String seed = ClientsUtils.getEnv("DATAGEN_SEED", null);
+        SalesDataGen generator = seed != null ? new SalesDataGen(Long.parseLong(seed)) : new SalesDataGen();
+
+        Sale[] sales = new Sale[sample];
+        for (int i = 0; i < sample; i++) {
+            sales[i] = generator.nextSale(false);
+        }
+        System.out.printf("%d records over %d partitions%n%n", sample, partitions);
+        report("order_id", sales, Sale::getOrderId, partitions);
+        report("customer_id", sales, Sale::getCustomerId, partitions);
+        report("product_id", sales, Sale::getProductId, partitions);
+    }
+
+    private static void report(String field, Sale[] sales, ToIntFunction<Sale> key, int partitions) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        long[] partitionCounts = new long[partitions];
+        for (Sale sale : sales) {
+            int value = key.applyAsInt(sale);
+            counts.merge(value, 1, Integer::sum);
+        }
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            byte[] bytes = String.valueOf(entry.getKey()).getBytes(StandardCharsets.UTF_8);
+            partitionCounts[Utils.toPositive(Utils.murmur2(bytes)) % partitions] += entry.getValue();
+        }
+
+        int[] sorted = counts.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int top = Math.max(1, sorted.length / 100);
+        long topSum = 0;
+        for (int i = sorted.length - top; i < sorted.length; i++) {
+            topSum += sorted[i];
+        }
+        long max = Arrays.stream(partitionCounts).max().orElse(0);
+        double mean = (double) sales.length / partitions;
+
+        System.out.printf("%s: distinct=%d hottest=%.2f%% top 1%% (%d values)=%.2f%% max/mean partition=%.2f%n",
+                field, sorted.length, 100.0 * sorted[sorted.length - 1] / sales.length, top,
+                100.0 * topSum / sales.length, max / mean);
+        StringBuilder line = new StringBuilder("  partitions:");
+        for (int p = 0; p < partitions; p++) {
+            line.append(String.format(" %d=%.1f%%", p, 100.0 * partitionCounts[p] / sales.length));
+        }
+        System.out.println(line);
+    }
+}
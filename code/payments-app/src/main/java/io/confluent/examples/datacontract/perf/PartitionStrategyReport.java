@@ -0,0 +1,88 @@
+package io.confluent.examples.datacontract.perf;
+
+import io.confluent.examples.datacontract.datagen.SalesDataGen;
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import io.confluent.examples.datacontract.utils.KeyGroupPartitioner;
+import io.confluent.examples.datacontract.utils.PartitionStrategy;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offline report of what each {@link PartitionStrategy} means for partition balance and for the shuffle
+ * in front of a per-customer Flink aggregation, without a cluster.
+ *
+ * Generates {@code PARTITION_SAMPLE} records (default 1,000,000) with the configured key distributions
+ * and places them on {@code PARTITION_COUNT} partitions (default 6) of {@code PARTITION_TOPIC} (default
+ * payments) per strategy in {@code PARTITION_STRATEGIES} (default order,customer,key-group). It then
+ * models a DataStream job with {@code FLINK_PARALLELISM} subtasks (default: the partition count) whose
+ * {@code KafkaSource} reads each partition on the subtask chosen from the topic name, as Flink does, and
+ * that keys by the {@code Integer} customer id over {@code KEY_GROUP_MAX_PARALLELISM} key groups
+ * (default 128). A record is shuffled when its customer's key group belongs to another subtask than the
+ * one reading it. Flink SQL hashes keys differently, so the report does not apply to the labs' SQL.
+ *
+ * For each strategy it prints the max/mean partition load (1.0 is even), the smallest and largest
+ * partition share, the average number of partitions a customer's payments are spread over, and the
+ * share and Avro bytes of records that cross the network in the keyBy.
+ */
+public class PartitionStrategyReport {
+
+    public static void main(String[] args) throws IOException {
+        int sample = ClientsUtils.getEnvInt("PARTITION_SAMPLE", 1_000_000);
+        int partitions = ClientsUtils.getEnvInt("PARTITION_COUNT", 6);
+        int parallelism = ClientsUtils.getEnvInt("FLINK_PARALLELISM", partitions);
+        String topic = ClientsUtils.getEnv("PARTITION_TOPIC", "payments");
+        int maxParallelism = PartitionStrategy.maxParallelism();
+        String[] strategies = ClientsUtils.getEnv("PARTITION_STRATEGIES", "order,customer,key-group").split(",");
+        String seed = ClientsUtils.getEnv("DATAGEN_SEED", null);
+        SalesDataGen generator = seed != null ? new SalesDataGen(Long.parseLong(seed)) : new SalesDataGen();
+
+        Sale[] sales = new Sale[sample];
+        int[] sizes = new int[sample];
+        for (int i = 0; i < sample; i++) {
+            sales[i] = generator.nextSale(false);
+            sizes[i] = sales[i].toByteBuffer().remaining();
+        }
+        System.out.printf("%d records over %d partitions of %s, Flink parallelism %d, max parallelism %d%n%n",
+                sample, partitions, topic, parallelism, maxParallelism);
+        System.out.printf("%-10s %10s %10s %10s %16s %10s %14s%n", "strategy", "max/mean", "min share",
+                "max share", "partitions/cust", "shuffled", "shuffled MB");
+
+        for (String name : strategies) {
+            PartitionStrategy strategy = PartitionStrategy.parse(name);
+            long[] partitionCounts = new long[partitions];
+            // Bit set of the partitions each customer was seen on (up to 64 partitions)
+            Map<Integer, Long> customerPartitions = new HashMap<>();
+            long shuffled = 0, shuffledBytes = 0;
+            for (int i = 0; i < sample; i++) {
+                Sale sale = sales[i];
+                int partition = strategy.partition(sale, topic, partitions);
+                partitionCounts[partition]++;
+                customerPartitions.merge(sale.getCustomerId(), 1L << (partition & 63), (a, b) -> a | b);
+
+                int sourceSubtask = KeyGroupPartitioner.sourceSubtask(topic, partition, parallelism);
+                int owner = KeyGroupPartitioner.ownerSubtask(Integer.hashCode(sale.getCustomerId()),
+                        maxParallelism, parallelism);
+                if (owner != sourceSubtask) {
+                    shuffled++;
+                    shuffledBytes += sizes[i];
+                }
+            }
+
+            long max = Arrays.stream(partitionCounts).max().orElse(0);
+            long min = Arrays.stream(partitionCounts).min().orElse(0);
+            double mean = (double) sample / partitions;
+            double spread = customerPartitions.values().stream().mapToInt(Long::bitCount).average().orElse(0);
+            System.out.printf("%-10s %10.2f %9.1f%% %9.1f%% %16.2f %9.1f%% %14.1f%n", strategy.label(),
+                    max / mean, 100.0 * min / sample, 100.0 * max / sample, spread,
+                    100.0 * shuffled / sample, shuffledBytes / 1e6);
+        }
+        System.out.println();
+        System.out.println("shuffled = records whose customer is owned by another subtask than the one reading "
+                + "their partition; 0% means a DataStream keyBy on the Integer customer id can be replaced by "
+                + "reinterpretAsKeyedStream (not Flink SQL, which hashes keys differently)");
+    }
+}
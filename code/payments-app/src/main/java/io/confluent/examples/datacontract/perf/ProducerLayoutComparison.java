@@ -0,0 +1,74 @@
+package io.confluent.examples.datacontract.perf;
+
+import io.confluent.examples.datacontract.load.LoadConfig;
+import io.confluent.examples.datacontract.load.ProducerPool;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Compares producer layouts for the same set of store threads against the configured cluster:
+ * one producer per thread (the demo default), a single shared producer, and a small striped pool.
+ *
+ * For each layout it reports throughput, ack latency, batch fill ratio ({@code batch-size-avg} over
+ * {@code batch.size}), records per request and broker connections.
+ *
+ * <ul>
+ *     <li>{@code LAYOUT_THREADS} - store threads (default 16)</li>
+ *     <li>{@code LAYOUT_POOL_SIZE} - producers in the striped layout (default 4)</li>
+ *     <li>{@code LOAD_DURATION_SEC} - run time per layout (default 60)</li>
+ *     <li>{@code TARGET_RATE} / {@code TARGET_RATE_PER_THREAD} / {@code MAX_IN_FLIGHT} - as in {@link LoadConfig}</li>
+ * </ul>
+ */
+public class ProducerLayoutComparison {
+
+    private static final String TOPIC = "payments";
+
+    public static void main(String[] args) throws Exception {
+        int threads = ClientsUtils.getEnvInt("LAYOUT_THREADS", 16);
+        int poolSize = ClientsUtils.getEnvInt("LAYOUT_POOL_SIZE", 4);
+        LoadConfig config = LoadConfig.fromEnv();
+        if (config.getDurationSec() <= 0) {
+            config = config.withDurationSec(60);
+        }
+
+        String[] layouts = {"per-thread", "shared", "striped-" + poolSize};
+        int[] producerCounts = {threads, 1, poolSize};
+        List<SenderRun.Result> results = new ArrayList<>();
+        for (int i = 0; i < layouts.length; i++) {
+            results.add(runLayout(layouts[i], producerCounts[i], threads, config));
+        }
+
+        Properties defaults = ClientsUtils.loadProducerConfig(null);
+        double batchSize = Double.parseDouble(defaults.getProperty(ProducerConfig.BATCH_SIZE_CONFIG, "16384"));
+
+        System.out.println();
+        System.out.printf("%-14s %10s %12s %10s %10s %12s %12s %12s%n", "layout", "producers", "events/s",
+                "p50 us", "p99 us", "batch fill", "recs/request", "connections");
+        for (int i = 0; i < results.size(); i++) {
+            SenderRun.Result r = results.get(i);
+            System.out.printf("%-14s %10d %12.1f %10d %10d %11.1f%% %12.1f %12.0f%n",
+                    r.label, producerCounts[i], r.eventsPerSec(),
+                    r.ackLatency.getValueAtPercentile(50), r.ackLatency.getValueAtPercentile(99),
+                    100 * r.metric("batch-size-avg") / batchSize, r.metric("records-per-request-avg"),
+                    r.metric("connection-count"));
+        }
+    }
+
+    private static SenderRun.Result runLayout(String label, int producers, int threads, LoadConfig config)
+            throws InterruptedException {
+        System.out.println("Running layout " + label + " with " + producers + " producer(s) for "
+                + config.getDurationSec() + "s");
+        try (ProducerPool pool = new ProducerPool(producers, "layout-" + label, null)) {
+            List<Producer<String, Object>> list = new ArrayList<>();
+            for (int i = 0; i < pool.size(); i++) {
+                list.add(pool.get(i));
+            }
+            return SenderRun.run(label, list, threads, config, TOPIC);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.confluent.examples.datacontract.perf;
+
+import io.confluent.examples.datacontract.load.LoadConfig;
+import io.confluent.examples.datacontract.load.OpenLoopSender;
+import io.confluent.examples.datacontract.metrics.ProducerMetrics;
+import io.confluent.examples.datacontract.metrics.ProducerStats;
+import io.confluent.examples.datacontract.metrics.StatsReporter;
+import io.confluent.examples.datacontract.utils.ClientsUtils;
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.producer.Producer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One timed run of {@link OpenLoopSender}s over a given set of producers, used by the comparison tools
+ * in this package. Sender {@code i} uses producer {@code i % producers.size()}; transactional producers
+ * need as many producers as threads.
+ *
+ * Every run gets the same workload whatever the producer settings: no duplicates are injected, and
+ * records fail the data quality rule at {@code COMPARISON_INVALID_RATE} (default 0) rather than
+ * {@code INVALID_RATE}. Transactional senders never inject duplicates, so leaving them on would give
+ * the other runs extra records.
+ */
+public class SenderRun {
+
+    /**
+     * Producer metrics captured at the end of each run; averages are averaged over producers,
+     * {@code connection-count} is summed.
+     */
+    static final String[] METRICS = {
+            "batch-size-avg", "records-per-request-avg", "record-size-avg", "compression-rate-avg",
+            "request-latency-avg", "outgoing-byte-total", "record-send-total", "record-retry-total",
+            "connection-count"
+    };
+
+    public static class Result {
+        public final String label;
+        public final long events;
+        public final long bytes;
+        public final double seconds;
+        public final Histogram ackLatency;
+        public final Histogram commitLatency;
+        public final long commits;
+        public final Map<String, Double> metrics;
+
+        Result(String label, StatsReporter reporter, Map<String, Double> metrics) {
+            this.label = label;
+            this.events = reporter.getTotalEvents();
+            this.bytes = reporter.getTotalBytes();
+            this.seconds = reporter.getTotalSeconds();
+            this.ackLatency = reporter.getTotalAckLatency();
+            this.commitLatency = reporter.getTotalCommitLatency();
+            this.commits = reporter.getTotalCommits();
+            this.metrics = metrics;
+        }
+
+        public double eventsPerSec() {
+            return events / Math.max(seconds, 1e-9);
+        }
+
+        public double metric(String name) {
+            Double value = metrics.get(name);
+            return value == null ? Double.NaN : value;
+        }
+    }
+
+    /**
+     * Run {@code threads} senders for the configured duration, then collect stats and producer metrics.
+     * The producers are left open; the caller closes them.
+     */
+    public static Result run(String label, List<? extends Producer<String, Object>> producers, int threads,
+                             LoadConfig config, String topic) throws InterruptedException {
+        return run(label, producers, threads, config, topic, false);
+    }
+
+    /**
+     * @param transactional whether the producers are transactional; each sender then commits its own batches
+     */
+    public static Result run(String label, List<? extends Producer<String, Object>> producers, int threads,
+                             LoadConfig config, String topic, boolean transactional) throws InterruptedException {
+        if (transactional && producers.size() < threads) {
+            throw new IllegalArgumentException("Transactional producers cannot be shared: " + threads
+                    + " threads need " + threads + " producers, got " + producers.size());
+        }
+        double invalidRate = ClientsUtils.getEnvDouble("COMPARISON_INVALID_RATE", 0);
+        StatsReporter reporter = new StatsReporter(0);
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        double ratePerThread = config.ratePerThread(threads);
+        for (int i = 0; i < threads; i++) {
+            Producer<String, Object> producer = producers.get(i % producers.size());
+            ProducerStats stats = reporter.register(label + "-" + i);
+            stats.attach(producer);
+            exec.submit(new OpenLoopSender(producer, topic, config, ratePerThread, stats, null, null, transactional)
+                    .withoutDuplicates()
+                    .withInvalidRate(invalidRate));
+        }
+        exec.shutdown();
+        exec.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        for (String name : METRICS) {
+            double sum = 0;
+            int count = 0;
+            for (Producer<String, Object> producer : producers) {
+                double value = ProducerMetrics.value(producer, name);
+                if (!Double.isNaN(value)) {
+                    sum += value;
+                    count++;
+                }
+            }
+            boolean summed = name.endsWith("-total") || name.equals("connection-count");
+            metrics.put(name, count == 0 ? Double.NaN : summed ? sum : sum / count);
+        }
+        reporter.close();
+        return new Result(label, reporter, metrics);
+    }
+}
@@ -0,0 +1,102 @@
+package io.confluent.examples.datacontract.rules;
+
+import io.confluent.dekregistry.client.DekRegistryClient;
+import io.confluent.examples.datacontract.metrics.EncryptionStats;
+import org.apache.log4j.Logger;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DEK registry client wrapper that counts DEK lookups ({@code getDek*}) and creates ({@code createDek})
+ * in {@link EncryptionStats}.
+ *
+ * The encryption executor builds its client internally and offers no way to pass one in, so
+ * {@link #install} swaps the configured client for the wrapper in place. Calls are counted as made by
+ * the executor; a lookup answered from the client's own DEK cache still counts.
+ */
+class CountingDekRegistryClient implements InvocationHandler {
+
+    private static final Logger logger = Logger.getLogger(CountingDekRegistryClient.class);
+
+    private final DekRegistryClient delegate;
+
+    private CountingDekRegistryClient(DekRegistryClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getName().startsWith("getDek")) {
+            EncryptionStats.onDekLookup();
+        } else if (method.getName().equals("createDek")) {
+            EncryptionStats.onDekCreate();
+        }
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Wrap the DEK registry client held by {@code executor}, directly or by an object it delegates to.
+     *
+     * @return whether a client was found
+     */
+    static boolean install(Object executor) {
+        try {
+            if (wrapClientField(executor)) {
+                return true;
+            }
+            for (Field field : fields(executor.getClass())) {
+                Object target = field.get(executor);
+                if (target != null && target.getClass().getName().startsWith("io.confluent.")
+                        && wrapClientField(target)) {
+                    return true;
+                }
+            }
+        } catch (IllegalAccessException e) {
+            logger.warn("Could not wrap the DEK registry client: " + e);
+            return false;
+        }
+        logger.warn("No DEK registry client found in " + executor.getClass().getName()
+                + "; DEK lookups will not be counted");
+        return false;
+    }
+
+    private static boolean wrapClientField(Object owner) throws IllegalAccessException {
+        for (Field field : fields(owner.getClass())) {
+            if (field.getType() != DekRegistryClient.class) {
+                continue;
+            }
+            Object client = field.get(owner);
+            if (client == null || Proxy.isProxyClass(client.getClass())) {
+                return client != null;
+            }
+            field.set(owner, Proxy.newProxyInstance(CountingDekRegistryClient.class.getClassLoader(),
+                    new Class<?>[]{DekRegistryClient.class}, new CountingDekRegistryClient((DekRegistryClient) client)));
+            return true;
+        }
+        return false;
+    }
+
+    private static List<Field> fields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,99 @@
+package io.confluent.examples.datacontract.rules;
+
+import com.google.crypto.tink.Aead;
+import com.google.crypto.tink.KmsClient;
+import com.google.crypto.tink.KmsClients;
+import io.confluent.examples.datacontract.metrics.EncryptionStats;
+import io.confluent.kafka.schemaregistry.encryption.tink.KmsDriverManager;
+
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * KMS client that counts every KEK encrypt (new DEK) and decrypt (DEK fetched from the registry) in
+ * {@link EncryptionStats}.
+ *
+ * The encryption executor looks KMS clients up in Tink's process-wide {@link KmsClients} registry
+ * before creating one from the KMS driver, and the first client that supports a key URL wins. This one
+ * is added when the executor is configured, before any record is encrypted, and wraps the {@link Aead}
+ * of the client the driver would have created.
+ */
+class CountingKmsClient implements KmsClient {
+
+    private static CountingKmsClient registered;
+
+    private final Map<String, ?> configs;
+    private final ConcurrentMap<String, Aead> aeads = new ConcurrentHashMap<>();
+
+    private CountingKmsClient(Map<String, ?> configs) {
+        this.configs = configs;
+    }
+
+    /**
+     * Register the counting client once per process, with the executor configs of the first caller
+     * (KMS credentials and the like); it must run before the first record is encrypted.
+     */
+    static synchronized void register(Map<String, ?> configs) {
+        if (registered == null) {
+            registered = new CountingKmsClient(configs);
+            KmsClients.add(registered);
+        }
+    }
+
+    @Override
+    public boolean doesSupport(String keyUri) {
+        try {
+            return keyUri != null && KmsDriverManager.getDriver(keyUri) != null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public KmsClient withCredentials(String credentialPath) {
+        return this;
+    }
+
+    @Override
+    public KmsClient withDefaultCredentials() {
+        return this;
+    }
+
+    @Override
+    public Aead getAead(String keyUri) throws GeneralSecurityException {
+        Aead aead = aeads.get(keyUri);
+        if (aead == null) {
+            Aead kms = KmsDriverManager.getDriver(keyUri).newKmsClient(configs, Optional.of(keyUri)).getAead(keyUri);
+            aead = new CountingAead(kms);
+            Aead existing = aeads.putIfAbsent(keyUri, aead);
+            if (existing != null) {
+                aead = existing;
+            }
+        }
+        return aead;
+    }
+
+    private static class CountingAead implements Aead {
+
+        private final Aead delegate;
+
+        CountingAead(Aead delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public byte[] encrypt(byte[] plaintext, byte[] associatedData) throws GeneralSecurityException {
+            EncryptionStats.onKmsEncrypt();
+            return delegate.encrypt(plaintext, associatedData);
+        }
+
+        @Override
+        public byte[] decrypt(byte[] ciphertext, byte[] associatedData) throws GeneralSecurityException {
+            EncryptionStats.onKmsDecrypt();
+            return delegate.decrypt(ciphertext, associatedData);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.confluent.examples.datacontract.rules;
+
+import io.confluent.examples.datacontract.metrics.EncryptionStats;
+import io.confluent.kafka.schemaregistry.encryption.FieldEncryptionExecutor;
+import io.confluent.kafka.schemaregistry.rules.RuleContext;
+import io.confluent.kafka.schemaregistry.rules.RuleException;
+
+import java.util.Map;
+
+/**
+ * The standard field encryption executor, timed per record into {@link EncryptionStats}, with its DEK
+ * registry calls and KMS calls counted there too.
+ *
+ * Each timed call covers the whole rule for one message: DEK lookup (and when needed, the registry and
+ * KMS calls) plus encrypting every PII-tagged field. It is registered under the encryption rule's name by
+ * {@link io.confluent.examples.datacontract.utils.ClientsUtils#loadProducerConfig}.
+ */
+public class TimedFieldEncryptionExecutor extends FieldEncryptionExecutor {
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        super.configure(configs);
+        CountingDekRegistryClient.install(this);
+        CountingKmsClient.register(configs);
+    }
+
+    @Override
+    public Object transform(RuleContext ctx, Object message) throws RuleException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = super.transform(ctx, message);
+            failed = false;
+            return result;
+        } finally {
+            EncryptionStats.record(start, failed);
+        }
+    }
+}
@@ -1,10 +1,23 @@
 package io.confluent.examples.datacontract.utils;
 
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.examples.datacontract.rules.TimedFieldEncryptionExecutor;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 
 import java.io.*;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ExecutionException;
 
@@ -15,6 +28,9 @@ public class ClientsUtils {
      * Throws RuntimeException if required environment variables are not set.
      */
     public static Properties loadConfigFromEnv() {
+        if (isLocalMode()) {
+            return loadLocalConfig();
+        }
         String bootstrapServers = System.getenv("BOOTSTRAP_SERVERS");
 
         // Validate required environment variables
@@ -67,6 +83,286 @@ public class ClientsUtils {
         return cfg;
     }
 
+    /**
+     * True when {@code LOCAL_MODE} is set: no Schema Registry or KMS is needed, and Kafka is optional.
+     */
+    public static boolean isLocalMode() {
+        return getEnvBoolean("LOCAL_MODE", false);
+    }
+
+    /**
+     * Configuration for {@code LOCAL_MODE}: the {@code payments-value} data contract is registered in an
+     * in-process {@code mock://} registry (scope {@code LOCAL_REGISTRY_SCOPE}) with the local KMS, and
+     * {@code LOCAL_RULES} selects which lab rules it carries (default encrypt,dq).
+     *
+     * When {@code BOOTSTRAP_SERVERS} is unset, no {@code bootstrap.servers} is returned and
+     * {@link #createProducer} falls back to a {@link LocalSinkProducer}. When it is set, SASL_SSL is used
+     * if {@code SASL_USERNAME}/{@code SASL_PASSWORD} are given and PLAINTEXT otherwise.
+     */
+    public static Properties loadLocalConfig() {
+        String scope = getEnv("LOCAL_REGISTRY_SCOPE", "payments-local");
+        String rules = getEnv("LOCAL_RULES", "encrypt,dq");
+        boolean encrypt = rules.contains("encrypt");
+        boolean dataQuality = rules.contains("dq");
+        System.out.println("Local mode: mock schema registry " + LocalSchemaRegistry.url(scope)
+                + " with rules [" + rules + "]");
+
+        Properties cfg = new Properties();
+        String bootstrapServers = getEnv("BOOTSTRAP_SERVERS", null);
+        if (bootstrapServers != null) {
+            cfg.put("bootstrap.servers", bootstrapServers);
+            String saslUsername = System.getenv("SASL_USERNAME");
+            String saslPassword = System.getenv("SASL_PASSWORD");
+            if (saslUsername != null && saslPassword != null) {
+                cfg.put("security.protocol", "SASL_SSL");
+                cfg.put("sasl.mechanism", "PLAIN");
+                cfg.put("sasl.jaas.config", String.format(
+                    "org.apache.kafka.common.security.plain.PlainLoginModule required username=\"%s\" password=\"%s\";",
+                    saslUsername, saslPassword));
+            }
+        } else {
+            System.out.println("Local mode: BOOTSTRAP_SERVERS not set, records are serialized and discarded");
+        }
+
+        try {
+            LocalSchemaRegistry.registerPayments(scope, encrypt, dataQuality);
+        } catch (Exception e) {
+            throw new RuntimeException("ERROR: Cannot register the payments schema in the mock registry", e);
+        }
+        cfg.putAll(LocalSchemaRegistry.serializerConfig(scope));
+        return cfg;
+    }
+
+    /**
+     * Create a producer from {@link #loadProducerConfig} style properties. Without {@code bootstrap.servers}
+     * (local mode with no cluster) this is a {@link LocalSinkProducer}.
+     *
+     * Unless {@code PREWARM=false}, one record is serialized to {@code PREWARM_TOPIC} (default payments)
+     * first, so the schema lookup, rule setup, DEK fetch and KMS call happen here instead of stalling the
+     * first sends.
+     *
+     * With a {@code transactional.id} (see {@link DeliveryMode}) the producer's transactions are
+     * initialized before it is returned.
+     */
+    public static Producer<String, Object> createProducer(Properties props) {
+        Serializer<Object> valueSerializer = createValueSerializer(props);
+        if (getEnvBoolean("PREWARM", true)) {
+            prewarm(valueSerializer, getEnv("PREWARM_TOPIC", "payments"));
+        }
+        Producer<String, Object> producer;
+        if (props.getProperty(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG) == null) {
+            producer = new LocalSinkProducer(valueSerializer, createPartitioner(props));
+        } else {
+            producer = new KafkaProducer<>(props, new StringSerializer(), valueSerializer);
+        }
+        if (isTransactional(props)) {
+            producer.initTransactions();
+        }
+        return producer;
+    }
+
+    /**
+     * Whether a producer created from {@code props} is transactional, i.e. has a {@code transactional.id}.
+     */
+    public static boolean isTransactional(Properties props) {
+        return props.get(ProducerConfig.TRANSACTIONAL_ID_CONFIG) != null;
+    }
+
+    /**
+     * A configured instance of the {@code value.serializer} in {@code props}. Avro serializers for a real
+     * registry share one {@link PrefetchingSchemaRegistryClient} unless {@code SCHEMA_PREFETCH=false}.
+     */
+    @SuppressWarnings("unchecked")
+    public static Serializer<Object> createValueSerializer(Properties props) {
+        Map<String, Object> configs = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : props.entrySet()) {
+            configs.put(entry.getKey().toString(), entry.getValue());
+        }
+        Object serializerClass = props.get(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG);
+        String className = serializerClass instanceof Class
+                ? ((Class<?>) serializerClass).getName() : String.valueOf(serializerClass);
+        String registryUrl = String.valueOf(configs.get("schema.registry.url"));
+        if (className.equals(KafkaAvroSerializer.class.getName()) && !registryUrl.startsWith("mock://")
+                && getEnvBoolean("SCHEMA_PREFETCH", true)) {
+            return new KafkaAvroSerializer(
+                    PrefetchingSchemaRegistryClient.shared(configs, getEnvLong("SCHEMA_REFRESH_SEC", 60)), configs);
+        }
+
+        Serializer<Object> serializer;
+        try {
+            serializer = (Serializer<Object>) Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("ERROR: Cannot create value serializer " + className, e);
+        }
+        serializer.configure(configs, false);
+        return serializer;
+    }
+
+    /**
+     * A configured instance of the {@code partitioner.class} in {@code props}, or null when unset.
+     */
+    private static Partitioner createPartitioner(Properties props) {
+        Object partitionerClass = props.get(ProducerConfig.PARTITIONER_CLASS_CONFIG);
+        if (partitionerClass == null) {
+            return null;
+        }
+        String className = partitionerClass instanceof Class
+                ? ((Class<?>) partitionerClass).getName() : String.valueOf(partitionerClass);
+        Partitioner partitioner;
+        try {
+            partitioner = Class.forName(className).asSubclass(Partitioner.class).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("ERROR: Cannot create partitioner " + className, e);
+        }
+        Map<String, Object> configs = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : props.entrySet()) {
+            configs.put(entry.getKey().toString(), entry.getValue());
+        }
+        partitioner.configure(configs);
+        return partitioner;
+    }
+
+    /**
+     * Serialize one fixed, valid record, so the first real send does not pay for the schema lookup and
+     * rule compilation. The record is built by hand rather than generated, so pre-warming leaves the
+     * order id sequence, the event clock and the disorder stats untouched. It is never sent.
+     */
+    private static void prewarm(Serializer<Object> valueSerializer, String topic) {
+        Sale sale = Sale.newBuilder()
+                .setOrderId(0)
+                .setProductId(0)
+                .setCustomerId(0)
+                .setConfirmationCode("PREWARM0")
+                .setCcNumber("0000-0000-0000-0000")
+                .setExpiration("12/99")
+                .setAmount(0)
+                .setTs(Instant.EPOCH)
+                .build();
+        long start = System.nanoTime();
+        try {
+            valueSerializer.serialize(topic, sale);
+            System.out.printf("Pre-warmed serializer for topic %s in %.1f ms%n", topic, (System.nanoTime() - start) / 1e6);
+        } catch (RuntimeException e) {
+            // Not fatal: the first real send will retry the same lookups and report any error
+            System.out.println("WARN: Serializer pre-warm failed: " + e);
+        }
+    }
+
+    /**
+     * How the serializer finds the schema to write with. {@code SCHEMA_ID} pins a registered schema id;
+     * otherwise the latest version is used and re-read from the client every {@code SCHEMA_REFRESH_SEC}
+     * (default 60, 0 caches it for the life of the producer). With {@link PrefetchingSchemaRegistryClient}
+     * that re-read is served from memory.
+     */
+    static void configureSchemaLookup(Properties props) {
+        int schemaId = getEnvInt("SCHEMA_ID", -1);
+        if (schemaId >= 0) {
+            props.put(AbstractKafkaSchemaSerDeConfig.USE_LATEST_VERSION, "false");
+            props.put(AbstractKafkaSchemaSerDeConfig.USE_SCHEMA_ID, String.valueOf(schemaId));
+            props.put(AbstractKafkaSchemaSerDeConfig.ID_COMPATIBILITY_STRICT, "false");
+            return;
+        }
+        long refreshSec = getEnvLong("SCHEMA_REFRESH_SEC", 60);
+        if (refreshSec > 0) {
+            props.put(AbstractKafkaSchemaSerDeConfig.LATEST_CACHE_TTL, String.valueOf(refreshSec));
+        }
+    }
+
+    /**
+     * DEK cache settings for every encryption executor ({@code DEK_CACHE_SIZE}, {@code DEK_CACHE_EXPIRY_SEC}),
+     * and unless {@code ENCRYPTION_METRICS=false}, the {@link TimedFieldEncryptionExecutor} registered under
+     * the encryption rule's name ({@code ENCRYPT_RULE_NAME}, default Encrypt_PII) with the default
+     * executor params copied over.
+     */
+    static void configureEncryption(Properties props) {
+        String defaultParams = "rule.executors._default_.param.";
+        String cacheSize = getEnv("DEK_CACHE_SIZE", null);
+        if (cacheSize != null) {
+            props.put(defaultParams + "cache.size", cacheSize);
+        }
+        String cacheExpirySec = getEnv("DEK_CACHE_EXPIRY_SEC", null);
+        if (cacheExpirySec != null) {
+            props.put(defaultParams + "cache.expiry.secs", cacheExpirySec);
+        }
+        if (!getEnvBoolean("ENCRYPTION_METRICS", true)) {
+            return;
+        }
+        String ruleName = getEnv("ENCRYPT_RULE_NAME", LocalSchemaRegistry.ENCRYPT_RULE_NAME);
+        String executor = "rule.executors." + ruleName;
+        props.put("rule.executors", ruleName);
+        props.put(executor + ".class", TimedFieldEncryptionExecutor.class.getName());
+        for (String name : props.stringPropertyNames()) {
+            if (name.startsWith(defaultParams)) {
+                props.put(executor + ".param." + name.substring(defaultParams.length()), props.getProperty(name));
+            }
+        }
+    }
+
+    /**
+     * Producer configuration for the payments topic: connection settings from the environment plus
+     * the Avro serializer set up to use the latest registered schema (and its data contract rules).
+     */
+    public static Properties loadProducerConfig(String clientId) {
+        return loadProducerConfig(clientId, DeliveryMode.fromEnv());
+    }
+
+    /**
+     * As {@link #loadProducerConfig(String)}, with the given delivery mode instead of {@code DELIVERY_MODE}.
+     */
+    public static Properties loadProducerConfig(String clientId, DeliveryMode deliveryMode) {
+        // Load configuration from environment variables (required)
+        Properties props = loadConfigFromEnv();
+
+        if (clientId != null) {
+            props.put(ProducerConfig.CLIENT_ID_CONFIG, clientId);
+        }
+        props.put(AbstractKafkaSchemaSerDeConfig.AUTO_REGISTER_SCHEMAS, "false");
+        props.put(AbstractKafkaSchemaSerDeConfig.USE_LATEST_VERSION, "true");
+        props.put(AbstractKafkaSchemaSerDeConfig.LATEST_COMPATIBILITY_STRICT, "false");
+        configureSchemaLookup(props);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+
+        props.put("value.serializer", "io.confluent.kafka.serializers.KafkaAvroSerializer");
+
+        configureEncryption(props);
+
+        // Batching/compression/acks tuning selected with PRODUCER_PROFILE
+        ProducerProfile.fromEnv().applyTo(props);
+        // Record placement selected with PARTITION_STRATEGY
+        PartitionStrategy.fromEnv().applyTo(props);
+        // acks / idempotence / transactions selected with DELIVERY_MODE
+        deliveryMode.applyTo(props, clientId);
+        return props;
+    }
+
+    /**
+     * Read an optional environment variable, falling back to the given default when unset or empty.
+     */
+    public static String getEnv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
+    }
+
+    public static int getEnvInt(String name, int defaultValue) {
+        String value = getEnv(name, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public static long getEnvLong(String name, long defaultValue) {
+        String value = getEnv(name, null);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    public static double getEnvDouble(String name, double defaultValue) {
+        String value = getEnv(name, null);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    public static boolean getEnvBoolean(String name, boolean defaultValue) {
+        String value = getEnv(name, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
     public static String createTopicIfNotExists(Properties props, String topicName) {
         AdminClient adminClient = AdminClient.create(props);
         boolean topicExists = false;
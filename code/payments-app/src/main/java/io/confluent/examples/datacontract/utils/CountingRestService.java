@@ -0,0 +1,44 @@
+package io.confluent.examples.datacontract.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.confluent.examples.datacontract.metrics.SchemaRegistryStats;
+import io.confluent.kafka.schemaregistry.client.rest.RestService;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Schema Registry REST client that counts every HTTP request in {@link SchemaRegistryStats}, keyed by
+ * endpoint with subject names and ids replaced by {@code *} (e.g. {@code GET /schemas/ids/*}).
+ */
+public class CountingRestService extends RestService {
+
+    public CountingRestService(String baseUrlConfig) {
+        super(baseUrlConfig);
+    }
+
+    @Override
+    public <T> T httpRequest(String path, String method, byte[] requestBodyData,
+                             Map<String, String> requestProperties, TypeReference<T> responseFormat)
+            throws IOException, RestClientException {
+        SchemaRegistryStats.onCall(method + " " + endpoint(path));
+        return super.httpRequest(path, method, requestBodyData, requestProperties, responseFormat);
+    }
+
+    static String endpoint(String path) {
+        int query = path.indexOf('?');
+        String[] segments = (query < 0 ? path : path.substring(0, query)).split("/");
+        StringBuilder endpoint = new StringBuilder();
+        String previous = "";
+        for (String segment : segments) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            boolean variable = previous.equals("subjects") || previous.equals("ids") || segment.matches("\\d+");
+            endpoint.append('/').append(variable ? "*" : segment);
+            previous = segment;
+        }
+        return endpoint.toString();
+    }
+}
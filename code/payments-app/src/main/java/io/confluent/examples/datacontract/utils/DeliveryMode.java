@@ -0,0 +1,71 @@
+package io.confluent.examples.datacontract.utils;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivery guarantee of the payments producers, selected with {@code DELIVERY_MODE}. Applied after the
+ * {@link ProducerProfile}, so it wins where they disagree (e.g. {@code acks}).
+ *
+ * <ul>
+ *     <li>{@link #DEFAULT} - client defaults and profile settings untouched</li>
+ *     <li>{@link #AT_LEAST_ONCE} - acks=all without idempotence: a retried batch can be written twice</li>
+ *     <li>{@link #IDEMPOTENT} - acks=all with idempotence: retries never duplicate or reorder records</li>
+ *     <li>{@link #TRANSACTIONAL} - idempotent, and records are committed in batches of
+ *     {@code TXN_BATCH_RECORDS} records or {@code TXN_BATCH_MS} ms (see
+ *     {@link io.confluent.examples.datacontract.load.TransactionBatcher}); read_committed consumers only
+ *     see committed batches. Each producer must belong to a single sender.</li>
+ * </ul>
+ */
+public enum DeliveryMode {
+
+    DEFAULT, AT_LEAST_ONCE, IDEMPOTENT, TRANSACTIONAL;
+
+    private static final AtomicInteger transactionalIds = new AtomicInteger();
+
+    public static DeliveryMode fromEnv() {
+        return parse(ClientsUtils.getEnv("DELIVERY_MODE", "default"));
+    }
+
+    /**
+     * Parse a mode name such as {@code at-least-once}.
+     */
+    public static DeliveryMode parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    public void applyTo(Properties props, String clientId) {
+        switch (this) {
+            case AT_LEAST_ONCE:
+                props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "false");
+                props.put(ProducerConfig.ACKS_CONFIG, "all");
+                break;
+            case IDEMPOTENT:
+            case TRANSACTIONAL:
+                props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "true");
+                props.put(ProducerConfig.ACKS_CONFIG, "all");
+                // Idempotence allows at most 5 in-flight requests per connection
+                Object maxInFlight = props.get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION);
+                if (maxInFlight != null && Integer.parseInt(maxInFlight.toString()) > 5) {
+                    props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, "5");
+                }
+                if (this == TRANSACTIONAL) {
+                    // Unique per producer in this process, so producers never fence each other
+                    props.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG,
+                            ClientsUtils.getEnv("TRANSACTIONAL_ID_PREFIX", "payments-app") + "-"
+                                    + (clientId != null ? clientId : "producer") + "-"
+                                    + transactionalIds.incrementAndGet());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+}
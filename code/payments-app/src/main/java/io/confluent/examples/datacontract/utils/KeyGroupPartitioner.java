@@ -0,0 +1,114 @@
+package io.confluent.examples.datacontract.utils;
+
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+
+import java.util.Map;
+
+/**
+ * Partitions {@code Sale} records by customer the way Flink assigns keys to operators, so a job with as
+ * many subtasks as the topic has partitions finds each customer's payments already on the subtask that
+ * owns the customer's state.
+ *
+ * Flink hashes {@code key.hashCode()} with murmur into one of {@code maxParallelism} key groups and gives
+ * subtask {@code i} of {@code p} a contiguous range of key groups, so the owner of a key group is
+ * subtask {@code keyGroup * p / maxParallelism}. The {@code KafkaSource} does not read partition
+ * {@code i} on subtask {@code i}: it reads it on subtask {@code (startIndex + i) % p}, where
+ * {@code startIndex} is derived from the topic name (see {@link #sourceSubtask}). This partitioner
+ * undoes that rotation and sends each key group to the partition read by its owner, with
+ * {@code p} equal to the partition count. {@code maxParallelism} comes from
+ * {@value #MAX_PARALLELISM_CONFIG} (default 128, Flink's smallest default) and must be at least the
+ * partition count, or some partitions stay empty.
+ *
+ * The key is the customer id as an {@code Integer}, so this only matches a DataStream
+ * {@code keyBy(Sale::getCustomerId)}. Flink SQL, as used in the labs, hashes its key rows differently,
+ * so a SQL {@code GROUP BY} or join on the customer id still shuffles.
+ */
+public class KeyGroupPartitioner implements Partitioner {
+
+    public static final String MAX_PARALLELISM_CONFIG = "key.group.max.parallelism";
+
+    private int maxParallelism = 128;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object value = configs.get(MAX_PARALLELISM_CONFIG);
+        if (value != null) {
+            maxParallelism = Integer.parseInt(value.toString());
+        }
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes,
+                         Cluster cluster) {
+        int partitions = cluster.partitionsForTopic(topic).size();
+        int keyHash = value instanceof Sale ? Integer.hashCode(((Sale) value).getCustomerId())
+                : key != null ? key.hashCode() : 0;
+        return partition(topic, keyHash, maxParallelism, partitions);
+    }
+
+    /**
+     * The partition of {@code topic}, out of {@code partitions}, that a {@code KafkaSource} with one
+     * subtask per partition reads on the subtask owning the key with the given {@code hashCode}.
+     */
+    public static int partition(String topic, int keyHash, int maxParallelism, int partitions) {
+        int owner = ownerSubtask(keyHash, maxParallelism, partitions);
+        return Math.floorMod(owner - sourceStartIndex(topic, partitions), partitions);
+    }
+
+    /**
+     * The keyed subtask, out of {@code parallelism}, owning the key with the given {@code hashCode}:
+     * Flink's {@code KeyGroupRangeAssignment.assignKeyToParallelOperator}.
+     */
+    public static int ownerSubtask(int keyHash, int maxParallelism, int parallelism) {
+        return keyGroup(keyHash, maxParallelism) * parallelism / maxParallelism;
+    }
+
+    /**
+     * The source subtask, out of {@code parallelism}, reading {@code partition} of {@code topic}:
+     * Flink's {@code KafkaSourceEnumerator.getSplitOwner}.
+     */
+    public static int sourceSubtask(String topic, int partition, int parallelism) {
+        return (sourceStartIndex(topic, parallelism) + partition) % parallelism;
+    }
+
+    private static int sourceStartIndex(String topic, int parallelism) {
+        return ((topic.hashCode() * 31) & 0x7FFFFFFF) % parallelism;
+    }
+
+    /**
+     * Flink's {@code KeyGroupRangeAssignment.assignToKeyGroup}.
+     */
+    public static int keyGroup(int keyHash, int maxParallelism) {
+        return murmurHash(keyHash) % maxParallelism;
+    }
+
+    /**
+     * Flink's {@code MathUtils.murmurHash(int)}: one murmur3 round plus finalizer, made non-negative.
+     */
+    static int murmurHash(int code) {
+        code *= 0xcc9e2d51;
+        code = Integer.rotateLeft(code, 15);
+        code *= 0x1b873593;
+        code = Integer.rotateLeft(code, 13);
+        code = code * 5 + 0xe6546b64;
+        code ^= 4;
+        code ^= code >>> 16;
+        code *= 0x85ebca6b;
+        code ^= code >>> 13;
+        code *= 0xc2b2ae35;
+        code ^= code >>> 16;
+        if (code >= 0) {
+            return code;
+        } else if (code != Integer.MIN_VALUE) {
+            return -code;
+        } else {
+            return 0;
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,120 @@
+package io.confluent.examples.datacontract.utils;
+
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Rule;
+import io.confluent.kafka.schemaregistry.client.rest.entities.RuleKind;
+import io.confluent.kafka.schemaregistry.client.rest.entities.RuleMode;
+import io.confluent.kafka.schemaregistry.client.rest.entities.RuleSet;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import org.apache.avro.Schema;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process stand-in for the Confluent Cloud Schema Registry setup used by the labs.
+ *
+ * Registers the {@code payments-value} schema in a {@code mock://} registry scope with the same data
+ * contract the labs add by hand: {@code cc_number} tagged PII, the {@code Encrypt_PII} field encryption
+ * rule (backed by the local KMS instead of AWS KMS) and the {@code validateConfirmationCode} rule.
+ * The schema itself is {@link Sale}'s, generated from {@code src/main/datacontracts/avro/payments-value.avsc}.
+ *
+ * Offline there is no {@code error-payments} topic, so the data quality rule fails the send ({@code ERROR})
+ * instead of routing to a DLQ.
+ */
+public class LocalSchemaRegistry {
+
+    public static final String PAYMENTS_SUBJECT = "payments-value";
+    public static final String ENCRYPT_RULE_NAME = "Encrypt_PII";
+    public static final String DATA_QUALITY_RULE_NAME = "validateConfirmationCode";
+
+    private static final String KEK_NAME = "payments-local-kek";
+    private static final String LOCAL_KMS_TYPE = "local-kms";
+    private static final String LOCAL_KMS_KEY_ID = "payments-local-key";
+    private static final String LOCAL_KMS_SECRET = "payments-local-secret";
+
+    public static String url(String scope) {
+        return "mock://" + scope;
+    }
+
+    /**
+     * The {@link Sale} schema with {@code cc_number} tagged PII and the selected lab rules attached.
+     */
+    public static AvroSchema paymentsSchema(boolean encrypt, boolean dataQuality) {
+        Schema schema = new Schema.Parser().parse(Sale.getClassSchema().toString());
+        schema.getField("cc_number").addProp("confluent:tags", Collections.singletonList("PII"));
+
+        List<Rule> domainRules = new ArrayList<>();
+        if (dataQuality) {
+            domainRules.add(new Rule(DATA_QUALITY_RULE_NAME,
+                    "Validate that the confirmation code is uppercase alphanumeric and only 8 characters",
+                    RuleKind.CONDITION, RuleMode.WRITE, "CEL", null, null,
+                    "message.confirmation_code.matches('^[A-Z0-9]{8}$')", null, "ERROR", false));
+        }
+        if (encrypt) {
+            Map<String, String> params = new HashMap<>();
+            params.put("encrypt.kek.name", KEK_NAME);
+            params.put("encrypt.kms.type", LOCAL_KMS_TYPE);
+            params.put("encrypt.kms.key.id", LOCAL_KMS_KEY_ID);
+            domainRules.add(new Rule(ENCRYPT_RULE_NAME, "Encrypt all fields with the PII tag",
+                    RuleKind.TRANSFORM, RuleMode.WRITEREAD, "ENCRYPT", Collections.singleton("PII"), params,
+                    null, null, "ERROR,NONE", false));
+        }
+        AvroSchema avroSchema = new AvroSchema(schema);
+        return domainRules.isEmpty()
+                ? avroSchema
+                : avroSchema.copy(null, new RuleSet(Collections.emptyList(), domainRules));
+    }
+
+    /**
+     * Register {@code schema} under {@code subject} in the mock registry {@code scope}.
+     *
+     * @return the registered schema id
+     */
+    public static int register(String scope, String subject, AvroSchema schema)
+            throws IOException, RestClientException {
+        SchemaRegistryClient client = MockSchemaRegistry.getClientForScope(scope);
+        return client.register(subject, schema);
+    }
+
+    /**
+     * Register the {@code payments-value} data contract in {@code scope} unless it is already there.
+     * Safe to call from every producer that is created.
+     *
+     * @return the registered schema id
+     */
+    public static synchronized int registerPayments(String scope, boolean encrypt, boolean dataQuality)
+            throws IOException, RestClientException {
+        SchemaRegistryClient client = MockSchemaRegistry.getClientForScope(scope);
+        if (!client.getAllSubjects().contains(PAYMENTS_SUBJECT)) {
+            return client.register(PAYMENTS_SUBJECT, paymentsSchema(encrypt, dataQuality));
+        }
+        return client.getLatestSchemaMetadata(PAYMENTS_SUBJECT).getId();
+    }
+
+    /**
+     * Serializer settings pointing at the mock registry {@code scope}, with the local KMS secret the
+     * encryption rule needs. Mirrors the schema settings {@code ProducerApp} uses against Confluent Cloud.
+     */
+    public static Map<String, Object> serializerConfig(String scope) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, url(scope));
+        config.put(AbstractKafkaSchemaSerDeConfig.AUTO_REGISTER_SCHEMAS, false);
+        config.put(AbstractKafkaSchemaSerDeConfig.USE_LATEST_VERSION, true);
+        config.put(AbstractKafkaSchemaSerDeConfig.LATEST_COMPATIBILITY_STRICT, false);
+        config.put("rule.executors._default_.param.secret", LOCAL_KMS_SECRET);
+        return config;
+    }
+
+    public static void drop(String scope) {
+        MockSchemaRegistry.dropScope(scope);
+    }
+}
@@ -0,0 +1,104 @@
+package io.confluent.examples.datacontract.utils;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Producer for {@code LOCAL_MODE} runs without a Kafka cluster.
+ *
+ * Every record goes through the real key and value serializers, including data contract rules and field
+ * encryption, and is then acknowledged immediately and dropped. Nothing is retained, unlike
+ * {@link MockProducer}'s history, so it can run at full speed indefinitely. Partitions are assigned
+ * over {@code LOCAL_PARTITIONS} partitions by the configured partitioner, or with the same murmur2 hash
+ * as the Kafka default partitioner.
+ */
+public class LocalSinkProducer extends MockProducer<String, Object> {
+
+    private final Serializer<String> keySerializer = new StringSerializer();
+    private final Serializer<Object> valueSerializer;
+    private final Partitioner partitioner;
+    private final int partitions;
+    private final AtomicLongArray offsets;
+    private final Map<String, Cluster> clusters = new ConcurrentHashMap<>();
+
+    /**
+     * @param valueSerializer a configured value serializer, closed with this producer
+     * @param partitioner     a configured partitioner, or null for the default murmur2 key hash
+     */
+    public LocalSinkProducer(Serializer<Object> valueSerializer, Partitioner partitioner) {
+        super(true, null, null);
+        this.valueSerializer = valueSerializer;
+        this.partitioner = partitioner;
+        this.partitions = ClientsUtils.getEnvInt("LOCAL_PARTITIONS", 6);
+        this.offsets = new AtomicLongArray(partitions);
+    }
+
+    @Override
+    public Future<RecordMetadata> send(ProducerRecord<String, Object> record) {
+        return send(record, null);
+    }
+
+    @Override
+    public Future<RecordMetadata> send(ProducerRecord<String, Object> record, Callback callback) {
+        // Serialization failures are thrown to the caller, as KafkaProducer does
+        byte[] key = keySerializer.serialize(record.topic(), record.headers(), record.key());
+        byte[] value = valueSerializer.serialize(record.topic(), record.headers(), record.value());
+
+        int partition;
+        if (record.partition() != null) {
+            partition = record.partition();
+        } else if (partitioner != null) {
+            Cluster cluster = clusters.computeIfAbsent(record.topic(), t -> new Cluster(null,
+                    Collections.emptyList(), partitionsFor(t), Collections.emptySet(), Collections.emptySet()));
+            partition = partitioner.partition(record.topic(), record.key(), key, record.value(), value, cluster);
+        } else if (key != null) {
+            partition = Utils.toPositive(Utils.murmur2(key)) % partitions;
+        } else {
+            partition = 0;
+        }
+        long timestamp = record.timestamp() != null ? record.timestamp() : System.currentTimeMillis();
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), partition),
+                offsets.getAndIncrement(partition % partitions), 0, timestamp,
+                key == null ? -1 : key.length, value == null ? -1 : value.length);
+        if (callback != null) {
+            callback.onCompletion(metadata, null);
+        }
+        return CompletableFuture.completedFuture(metadata);
+    }
+
+    @Override
+    public List<PartitionInfo> partitionsFor(String topic) {
+        List<PartitionInfo> infos = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            infos.add(new PartitionInfo(topic, i, null, null, null));
+        }
+        return infos;
+    }
+
+    @Override
+    public void close() {
+        valueSerializer.close();
+        if (partitioner != null) {
+            partitioner.close();
+        }
+        super.close();
+    }
+}
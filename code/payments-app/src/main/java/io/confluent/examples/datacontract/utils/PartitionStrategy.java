@@ -0,0 +1,68 @@
+package io.confluent.examples.datacontract.utils;
+
+import io.confluent.examples.datacontract.pojo.avro.Sale;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * How payments are keyed and partitioned, selected with {@code PARTITION_STRATEGY}.
+ *
+ * <ul>
+ *     <li>{@link #ORDER} - keyed by order id with the default partitioner: even spread, but each
+ *     customer's payments land on every partition</li>
+ *     <li>{@link #CUSTOMER} - keyed by customer id with the default partitioner: a customer's payments
+ *     stay on one partition and in order</li>
+ *     <li>{@link #KEY_GROUP} - keyed by customer id and placed by {@link KeyGroupPartitioner}, matching
+ *     Flink's key groups for {@code KEY_GROUP_MAX_PARALLELISM} (default 128) in a DataStream job</li>
+ * </ul>
+ */
+public enum PartitionStrategy {
+
+    ORDER, CUSTOMER, KEY_GROUP;
+
+    public static PartitionStrategy fromEnv() {
+        return parse(ClientsUtils.getEnv("PARTITION_STRATEGY", "order"));
+    }
+
+    public static PartitionStrategy parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * The Kafka record key for {@code sale}.
+     */
+    public String key(Sale sale) {
+        return String.valueOf(this == ORDER ? sale.getOrderId() : sale.getCustomerId());
+    }
+
+    public void applyTo(Properties props) {
+        if (this == KEY_GROUP) {
+            props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, KeyGroupPartitioner.class.getName());
+            props.put(KeyGroupPartitioner.MAX_PARALLELISM_CONFIG, String.valueOf(maxParallelism()));
+        }
+    }
+
+    /**
+     * The partition of {@code topic}, out of {@code partitions}, a producer configured by {@link #applyTo}
+     * sends {@code sale} to.
+     */
+    public int partition(Sale sale, String topic, int partitions) {
+        if (this == KEY_GROUP) {
+            return KeyGroupPartitioner.partition(topic, Integer.hashCode(sale.getCustomerId()), maxParallelism(),
+                    partitions);
+        }
+        return Utils.toPositive(Utils.murmur2(key(sale).getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+
+    public static int maxParallelism() {
+        return ClientsUtils.getEnvInt("KEY_GROUP_MAX_PARALLELISM", 128);
+    }
+}
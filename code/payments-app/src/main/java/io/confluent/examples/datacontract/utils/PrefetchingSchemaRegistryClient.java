@@ -0,0 +1,125 @@
+package io.confluent.examples.datacontract.utils;
+
+import io.confluent.examples.datacontract.metrics.SchemaRegistryStats;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Rule;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schema Registry client that keeps latest-version lookups off the send path.
+ *
+ * The first lookup of a subject resolves its latest version, schema id and rule set, and logs them.
+ * After that, {@link #getLatestSchemaMetadata} answers from an in-memory snapshot. A daemon thread
+ * refreshes the snapshot every {@code refreshSec} seconds and resolves the id of any new version before
+ * publishing it, so the serializer's id lookup is a cache hit as well. A failed refresh keeps the
+ * previous snapshot.
+ *
+ * One instance is shared by all producers in the process (see {@link #shared}), and its HTTP calls are
+ * counted through {@link CountingRestService}.
+ */
+public class PrefetchingSchemaRegistryClient extends CachedSchemaRegistryClient {
+
+    private static final Logger logger = Logger.getLogger(PrefetchingSchemaRegistryClient.class);
+    private static final Map<String, PrefetchingSchemaRegistryClient> shared = new HashMap<>();
+
+    private final CountingRestService restService;
+    private final Map<String, SchemaMetadata> latest = new ConcurrentHashMap<>();
+
+    PrefetchingSchemaRegistryClient(CountingRestService restService, Map<String, ?> configs, long refreshSec) {
+        super(restService, 1000, Collections.singletonList(new AvroSchemaProvider()), configs, null);
+        this.restService = restService;
+        if (refreshSec > 0) {
+            ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "schema-refresher");
+                t.setDaemon(true);
+                return t;
+            });
+            refresher.scheduleWithFixedDelay(this::refresh, refreshSec, refreshSec, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * The client for the registry in {@code configs}, created on first use.
+     */
+    public static synchronized PrefetchingSchemaRegistryClient shared(Map<String, Object> configs, long refreshSec) {
+        String url = String.valueOf(configs.get("schema.registry.url"));
+        PrefetchingSchemaRegistryClient client = shared.get(url);
+        if (client == null) {
+            Map<String, Object> clientConfigs = new HashMap<>(configs);
+            // The REST client reads the credentials without the schema.registry. prefix
+            Object userInfo = configs.get("schema.registry.basic.auth.user.info");
+            if (userInfo != null) {
+                clientConfigs.putIfAbsent("basic.auth.user.info", userInfo);
+            }
+            client = new PrefetchingSchemaRegistryClient(new CountingRestService(url), clientConfigs, refreshSec);
+            shared.put(url, client);
+        }
+        return client;
+    }
+
+    @Override
+    public SchemaMetadata getLatestSchemaMetadata(String subject) throws IOException, RestClientException {
+        SchemaMetadata metadata = latest.get(subject);
+        if (metadata != null) {
+            SchemaRegistryStats.onSnapshotHit();
+            return metadata;
+        }
+        metadata = resolve(subject);
+        logger.info(String.format("Resolved %s: id=%d version=%d rules=%s",
+                subject, metadata.getId(), metadata.getVersion(), ruleNames(metadata)));
+        return metadata;
+    }
+
+    private SchemaMetadata resolve(String subject) throws IOException, RestClientException {
+        SchemaMetadata metadata = new SchemaMetadata(restService.getLatestVersion(subject));
+        Optional<ParsedSchema> schema = parseSchema(new Schema(subject, metadata));
+        if (schema.isPresent()) {
+            getId(subject, schema.get());
+        }
+        latest.put(subject, metadata);
+        return metadata;
+    }
+
+    private void refresh() {
+        for (Map.Entry<String, SchemaMetadata> entry : latest.entrySet()) {
+            String subject = entry.getKey();
+            int previousVersion = entry.getValue().getVersion();
+            try {
+                SchemaMetadata metadata = resolve(subject);
+                if (metadata.getVersion() != previousVersion) {
+                    logger.info(String.format("Schema refreshed: %s version %d -> %d (id=%d rules=%s)",
+                            subject, previousVersion, metadata.getVersion(), metadata.getId(), ruleNames(metadata)));
+                }
+            } catch (Exception e) {
+                logger.warn("Schema refresh failed for " + subject + ", keeping version " + previousVersion + ": " + e);
+            }
+        }
+    }
+
+    private static List<String> ruleNames(SchemaMetadata metadata) {
+        List<String> names = new ArrayList<>();
+        if (metadata.getRuleSet() != null && metadata.getRuleSet().getDomainRules() != null) {
+            for (Rule rule : metadata.getRuleSet().getDomainRules()) {
+                names.add(rule.getName());
+            }
+        }
+        return names;
+    }
+}
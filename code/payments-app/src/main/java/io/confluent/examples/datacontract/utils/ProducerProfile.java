@@ -0,0 +1,58 @@
+package io.confluent.examples.datacontract.utils;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Named producer tuning profiles for the small (~100 byte) Avro {@code Sale} records, selected with
+ * {@code PRODUCER_PROFILE}. {@link #DEFAULT} leaves the Kafka client defaults untouched.
+ *
+ * <ul>
+ *     <li>{@link #LATENCY} - send immediately, leader-only acks, no compression</li>
+ *     <li>{@link #BALANCED} - a few ms of linger to form real batches, lz4, acks=all</li>
+ *     <li>{@link #THROUGHPUT} - large batches and zstd, trading tens of ms of latency for fewer, denser requests</li>
+ * </ul>
+ */
+public enum ProducerProfile {
+
+    DEFAULT(null, null, null, null, null),
+    // acks=1 implicitly disables idempotence (it is only enabled by default together with acks=all)
+    LATENCY("0", "16384", "none", "1", "5"),
+    BALANCED("5", "65536", "lz4", "all", "5"),
+    THROUGHPUT("50", "262144", "zstd", "all", "5");
+
+    private final String lingerMs;
+    private final String batchSize;
+    private final String compressionType;
+    private final String acks;
+    private final String maxInFlight;
+
+    ProducerProfile(String lingerMs, String batchSize, String compressionType, String acks, String maxInFlight) {
+        this.lingerMs = lingerMs;
+        this.batchSize = batchSize;
+        this.compressionType = compressionType;
+        this.acks = acks;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public static ProducerProfile fromEnv() {
+        return valueOf(ClientsUtils.getEnv("PRODUCER_PROFILE", "default").toUpperCase(Locale.ROOT));
+    }
+
+    public void applyTo(Properties props) {
+        if (this == DEFAULT) {
+            return;
+        }
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        props.put(ProducerConfig.ACKS_CONFIG, acks);
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlight);
+        if (this == THROUGHPUT) {
+            // Room for several full batches per partition
+            props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, String.valueOf(128L * 1024 * 1024));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.confluent.examples.datacontract.datagen;
+
+import org.apache.kafka.clients.producer.internals.BuiltInPartitioner;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DisorderModelTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void skewsEachPartitionByItsShareOfTheMaximum() {
+        int partitions = 6;
+        long skew = 5000;
+        DisorderModel model = new DisorderModel(0, 0, 5000, 60000, skew, partitions);
+        SplittableRandom random = new SplittableRandom(1);
+        boolean[] seen = new boolean[partitions];
+        for (int orderId = 0; orderId < 1000; orderId++) {
+            // The order id key as the Kafka default partitioner places it
+            int partition = BuiltInPartitioner.partitionForKey(
+                    String.valueOf(orderId).getBytes(StandardCharsets.UTF_8), partitions);
+            seen[partition] = true;
+            assertEquals(NOW - skew * partition / (partitions - 1), model.apply(orderId, NOW, random));
+        }
+        for (int p = 0; p < partitions; p++) {
+            assertTrue(seen[p], "no order id on partition " + p);
+        }
+    }
+
+    @Test
+    void singlePartitionIsNotSkewed() {
+        DisorderModel model = new DisorderModel(0, 0, 5000, 60000, 5000, 1);
+        SplittableRandom random = new SplittableRandom(1);
+        for (int orderId = 0; orderId < 100; orderId++) {
+            assertEquals(NOW, model.apply(orderId, NOW, random));
+        }
+    }
+
+    @Test
+    void jitterAndLateDelaysStayInTheirBounds() {
+        DisorderModel model = new DisorderModel(100, 0.5, 5000, 60000, 0, 6);
+        SplittableRandom random = new SplittableRandom(7);
+        int late = 0;
+        for (int orderId = 0; orderId < 10_000; orderId++) {
+            long delay = NOW - model.apply(orderId, NOW, random);
+            assertTrue(delay >= 0 && delay <= 60100, "delay " + delay);
+            if (delay > 100) {
+                assertTrue(delay >= 5000, "late delay " + delay);
+                late++;
+            }
+        }
+        assertTrue(late > 4500 && late < 5500, "late records " + late);
+    }
+
+    @Test
+    void rejectsNonPositivePartitions() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new DisorderModel(0, 0, 5000, 60000, 5000, 0));
+        assertTrue(e.getMessage().contains("DISORDER_PARTITIONS"));
+    }
+
+    @Test
+    void rejectsLateFractionOutsideZeroToOne() {
+        assertThrows(IllegalArgumentException.class, () -> new DisorderModel(0, 1.5, 5000, 60000, 0, 6));
+    }
+
+    @Test
+    void rejectsLateMaximumNotAboveTheWatermark() {
+        assertThrows(IllegalArgumentException.class, () -> new DisorderModel(0, 0.1, 5000, 5000, 0, 6));
+    }
+}
@@ -0,0 +1,93 @@
+package io.confluent.examples.datacontract.datagen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyDistributionTest {
+
+    private static final int SAMPLES = 200_000;
+
+    private static long[] histogram(KeyDistribution distribution, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] counts = new long[distribution.cardinality()];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[distribution.next(random)]++;
+        }
+        return counts;
+    }
+
+    @Test
+    void zipfMatchesTheExpectedFrequencies() {
+        for (double exponent : new double[]{0.5, 1.0, 2.0}) {
+            int cardinality = 20;
+            long[] counts = histogram(new KeyDistribution.Zipf(cardinality, exponent), 42);
+            double norm = 0;
+            for (int k = 1; k <= cardinality; k++) {
+                norm += Math.pow(k, -exponent);
+            }
+            for (int k = 1; k <= cardinality; k++) {
+                double expected = Math.pow(k, -exponent) / norm;
+                double actual = counts[k - 1] / (double) SAMPLES;
+                // Five standard deviations of a binomial proportion
+                double tolerance = 5 * Math.sqrt(expected * (1 - expected) / SAMPLES);
+                assertEquals(expected, actual, tolerance, "s=" + exponent + " id " + (k - 1));
+            }
+        }
+    }
+
+    @Test
+    void zipfStaysInRangeForLargeCardinalities() {
+        KeyDistribution zipf = new KeyDistribution.Zipf(10_000_000, 1.2);
+        SplittableRandom random = new SplittableRandom(3);
+        long zeros = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            int id = zipf.next(random);
+            assertTrue(id >= 0 && id < 10_000_000, "id " + id);
+            if (id == 0) {
+                zeros++;
+            }
+        }
+        // 1 / zeta(1.2) of the samples, about 18%, go to the hottest id
+        assertTrue(zeros > SAMPLES * 0.16 && zeros < SAMPLES * 0.20, "id 0 drawn " + zeros + " times");
+    }
+
+    @Test
+    void zipfOfOneIdAlwaysReturnsIt() {
+        KeyDistribution zipf = new KeyDistribution.Zipf(1, 1.0);
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, zipf.next(random));
+        }
+    }
+
+    @Test
+    void hotspotSendsItsTrafficShareToTheHotIds() {
+        long[] counts = histogram(new KeyDistribution.Hotspot(1000, 0.01, 0.9), 11);
+        long hot = 0;
+        for (int id = 0; id < 10; id++) {
+            hot += counts[id];
+        }
+        assertEquals(0.9, hot / (double) SAMPLES, 0.01);
+    }
+
+    @Test
+    void uniformCoversEveryId() {
+        long[] counts = histogram(new KeyDistribution.Uniform(100), 13);
+        for (int id = 0; id < 100; id++) {
+            assertEquals(SAMPLES / 100.0, counts[id], SAMPLES / 100.0 * 0.2, "id " + id);
+        }
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new KeyDistribution.Zipf(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new KeyDistribution.Zipf(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new KeyDistribution.Uniform(-1));
+        assertThrows(IllegalArgumentException.class, () -> new KeyDistribution.Hotspot(10, 0.1, 1.5));
+    }
+}
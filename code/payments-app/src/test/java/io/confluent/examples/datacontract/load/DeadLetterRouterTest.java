@@ -0,0 +1,40 @@
+package io.confluent.examples.datacontract.load;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DeadLetterRouterTest {
+
+    @Test
+    void masksAllButTheLastFourDigits() {
+        assertEquals("************1111", DeadLetterRouter.mask("4111111111111111"));
+    }
+
+    @Test
+    void keepsSeparatorsWhenMasking() {
+        assertEquals("****-****-****-1234", DeadLetterRouter.mask("4000-1111-2222-1234"));
+        assertEquals("**** **** **** 1234", DeadLetterRouter.mask("4000 1111 2222 1234"));
+    }
+
+    @Test
+    void leavesShortNumbersAndNullAlone() {
+        assertEquals("1234", DeadLetterRouter.mask("1234"));
+        assertEquals("", DeadLetterRouter.mask(""));
+        assertNull(DeadLetterRouter.mask(null));
+    }
+
+    @Test
+    void findsTheRuleNameInTheCauseChain() {
+        Exception e = new RuntimeException("Error serializing Avro message",
+                new IllegalStateException("Rule failed: validateConfirmationCode"));
+        assertEquals("validateConfirmationCode", DeadLetterRouter.ruleName(e));
+    }
+
+    @Test
+    void hasNoRuleNameForOtherFailures() {
+        assertNull(DeadLetterRouter.ruleName(new RuntimeException("Connection refused")));
+        assertNull(DeadLetterRouter.ruleName(new RuntimeException((String) null)));
+    }
+}
@@ -0,0 +1,127 @@
+package io.confluent.examples.datacontract.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the partitioner against Flink's own assignment code, ported below as written in Flink:
+ * {@code MathUtils.murmurHash}, {@code KeyGroupRangeAssignment} and {@code KafkaSourceEnumerator.getSplitOwner}.
+ */
+class KeyGroupPartitionerTest {
+
+    private static final int[][] MAX_PARALLELISM_AND_PARALLELISM = {
+            {128, 1}, {128, 6}, {128, 7}, {128, 128}, {256, 12}, {1000, 24}, {32768, 64}
+    };
+    private static final String[] TOPICS = {"payments", "orders", "t"};
+    private static final int KEYS = 20_000;
+
+    @Test
+    void matchesFlinksKeyGroupAssignment() {
+        for (int[] pair : MAX_PARALLELISM_AND_PARALLELISM) {
+            int maxParallelism = pair[0], parallelism = pair[1];
+            for (int customerId = -100; customerId < KEYS; customerId++) {
+                int keyHash = Integer.hashCode(customerId);
+                int keyGroup = flinkKeyGroup(keyHash, maxParallelism);
+                assertEquals(keyGroup, KeyGroupPartitioner.keyGroup(keyHash, maxParallelism));
+                assertEquals(flinkOperatorIndex(maxParallelism, parallelism, keyGroup),
+                        KeyGroupPartitioner.ownerSubtask(keyHash, maxParallelism, parallelism));
+            }
+        }
+    }
+
+    @Test
+    void ownerRangeContainsTheKeyGroup() {
+        for (int[] pair : MAX_PARALLELISM_AND_PARALLELISM) {
+            int maxParallelism = pair[0], parallelism = pair[1];
+            for (int customerId = 0; customerId < KEYS; customerId++) {
+                int keyGroup = KeyGroupPartitioner.keyGroup(customerId, maxParallelism);
+                int owner = KeyGroupPartitioner.ownerSubtask(customerId, maxParallelism, parallelism);
+                // KeyGroupRangeAssignment.computeKeyGroupRangeForOperatorIndex
+                int start = (owner * maxParallelism + parallelism - 1) / parallelism;
+                int end = ((owner + 1) * maxParallelism - 1) / parallelism;
+                assertTrue(keyGroup >= start && keyGroup <= end,
+                        "key group " + keyGroup + " outside [" + start + ", " + end + "] of subtask " + owner);
+            }
+        }
+    }
+
+    @Test
+    void partitionIsReadByTheKeysOwner() {
+        for (int[] pair : MAX_PARALLELISM_AND_PARALLELISM) {
+            int maxParallelism = pair[0], partitions = pair[1];
+            for (String topic : TOPICS) {
+                boolean[] used = new boolean[partitions];
+                for (int customerId = 0; customerId < KEYS; customerId++) {
+                    int keyHash = Integer.hashCode(customerId);
+                    int partition = KeyGroupPartitioner.partition(topic, keyHash, maxParallelism, partitions);
+                    assertTrue(partition >= 0 && partition < partitions, "partition " + partition);
+                    used[partition] = true;
+                    int owner = flinkOperatorIndex(maxParallelism, partitions, flinkKeyGroup(keyHash, maxParallelism));
+                    assertEquals(owner, flinkSplitOwner(topic, partition, partitions),
+                            topic + " maxParallelism=" + maxParallelism + " partitions=" + partitions);
+                }
+                for (int p = 0; p < partitions; p++) {
+                    assertTrue(used[p], topic + " partition " + p + " of " + partitions + " is empty");
+                }
+            }
+        }
+    }
+
+    @Test
+    void sourceSubtaskMatchesFlinksSplitOwner() {
+        for (String topic : TOPICS) {
+            for (int parallelism : new int[]{1, 2, 6, 7, 64}) {
+                for (int partition = 0; partition < 3 * parallelism; partition++) {
+                    assertEquals(flinkSplitOwner(topic, partition, parallelism),
+                            KeyGroupPartitioner.sourceSubtask(topic, partition, parallelism));
+                }
+            }
+        }
+    }
+
+    // KeyGroupRangeAssignment.assignToKeyGroup
+    private static int flinkKeyGroup(int keyHash, int maxParallelism) {
+        return flinkMurmurHash(keyHash) % maxParallelism;
+    }
+
+    // KeyGroupRangeAssignment.computeOperatorIndexForKeyGroup
+    private static int flinkOperatorIndex(int maxParallelism, int parallelism, int keyGroupId) {
+        return keyGroupId * parallelism / maxParallelism;
+    }
+
+    // KafkaSourceEnumerator.getSplitOwner
+    private static int flinkSplitOwner(String topic, int partition, int numReaders) {
+        int startIndex = ((topic.hashCode() * 31) & 0x7FFFFFFF) % numReaders;
+        return (startIndex + partition) % numReaders;
+    }
+
+    // MathUtils.murmurHash(int)
+    private static int flinkMurmurHash(int code) {
+        code *= 0xcc9e2d51;
+        code = Integer.rotateLeft(code, 15);
+        code *= 0x1b873593;
+        code = Integer.rotateLeft(code, 13);
+        code = code * 5 + 0xe6546b64;
+        code ^= 4;
+        code = flinkBitMix(code);
+        if (code >= 0) {
+            return code;
+        } else if (code != Integer.MIN_VALUE) {
+            return -code;
+        } else {
+            return 0;
+        }
+    }
+
+    // MathUtils.bitMix
+    private static int flinkBitMix(int in) {
+        in ^= in >>> 16;
+        in *= 0x85ebca6b;
+        in ^= in >>> 13;
+        in *= 0xc2b2ae35;
+        in ^= in >>> 16;
+        return in;
+    }
+}
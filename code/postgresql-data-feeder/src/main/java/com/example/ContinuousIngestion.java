@@ -0,0 +1,312 @@
+package com.example;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Continuous order ingestion at a target rate (CONTINUOUS_RATE orders/sec) from several worker threads.
+ *
+ * Each order and its 1-5 items are one transaction. Workers borrow a connection from a fixed pool of
+ * CONTINUOUS_POOL_SIZE connections (default: one per worker) for each transaction, so a pool smaller
+ * than CONTINUOUS_WORKERS (default 4) makes workers queue for connections. Every worker owns a disjoint
+ * range of order and order item ids, so workers never collide on keys. The rate is split evenly over
+ * the workers and each worker sends on a fixed schedule; a worker that falls behind sends back-to-back
+ * until it catches up, and the shortfall shows up as a lower achieved rate.
+ *
+ * Every CONTINUOUS_REPORT_SEC seconds (default 10) the achieved rate and two latency percentiles are
+ * printed: commit latency, from the order INSERT to the commit, and order latency, from the time the
+ * order was scheduled to the commit. Order latency includes the wait for a connection and any delay
+ * of a worker that fell behind, which commit latency alone would hide. CONTINUOUS_DURATION_SEC
+ * (default 0, run until stopped) limits the run. The run totals are printed at the end, also when the
+ * process is stopped with SIGINT or SIGTERM.
+ */
+public class ContinuousIngestion {
+
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO orders (OrderID, CustomerID, OrderDate, Status) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_ORDER_ITEM_SQL =
+            "INSERT INTO order_items (OrderItemID, OrderID, ProductID, Quantity) VALUES (?, ?, ?, ?)";
+
+    private final String dbUrl;
+    private final Properties connectionProperties;
+    private final Writer timeline;
+    private final double rate;
+    private final int workers;
+    private final int poolSize;
+    private final long durationSec;
+    private final long reportSec;
+    private final int customerIdMax;
+    private final int productIdMax;
+    private final int firstOrderId;
+    private final int firstOrderItemId;
+
+    // Latencies in microseconds, to commit() returning: from the order INSERT, and from the scheduled time
+    private final Recorder commitLatency = new Recorder(3);
+    private final Recorder orderLatency = new Recorder(3);
+    private final Histogram totalCommitLatency = new Histogram(3);
+    private final Histogram totalOrderLatency = new Histogram(3);
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private final List<Thread> threads = new ArrayList<>();
+    private BlockingQueue<Connection> pool;
+    private long startNanos;
+    private boolean finished;
+
+    /**
+     * @param timeline where committed orders are appended for the payments app, or null
+     */
+    public ContinuousIngestion(String dbUrl, Properties connectionProperties, Writer timeline,
+                               int customerIdMax, int productIdMax, int firstOrderId, int firstOrderItemId) {
+        this.dbUrl = dbUrl;
+        this.connectionProperties = connectionProperties;
+        this.timeline = timeline;
+        this.rate = Double.parseDouble(System.getenv("CONTINUOUS_RATE").trim());
+        this.workers = Math.max(1, DataFeeder.getEnvInt("CONTINUOUS_WORKERS", 4));
+        this.poolSize = Math.max(1, DataFeeder.getEnvInt("CONTINUOUS_POOL_SIZE", workers));
+        this.durationSec = DataFeeder.getEnvLong("CONTINUOUS_DURATION_SEC", 0);
+        this.reportSec = Math.max(1, DataFeeder.getEnvLong("CONTINUOUS_REPORT_SEC", 10));
+        this.customerIdMax = customerIdMax;
+        this.productIdMax = productIdMax;
+        this.firstOrderId = firstOrderId;
+        this.firstOrderItemId = firstOrderItemId;
+        if (rate <= 0) {
+            throw new IllegalArgumentException("CONTINUOUS_RATE must be positive, was " + rate);
+        }
+    }
+
+    public void run() throws SQLException, InterruptedException {
+        pool = new ArrayBlockingQueue<>(poolSize);
+        Thread shutdownHook = new Thread(this::finish, "ingest-shutdown");
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                pool.add(DriverManager.getConnection(dbUrl, connectionProperties));
+            }
+            // Each worker gets an equal slice of the remaining int id space
+            int orderRange = (Integer.MAX_VALUE - firstOrderId) / workers;
+            int itemRange = (Integer.MAX_VALUE - firstOrderItemId) / workers;
+            System.out.printf("Continuous ingestion: %.1f orders/s over %d workers and %d connections, "
+                    + "%d order ids per worker%n", rate, workers, poolSize, orderRange);
+
+            startNanos = System.nanoTime();
+            long deadline = durationSec > 0 ? startNanos + TimeUnit.SECONDS.toNanos(durationSec) : Long.MAX_VALUE;
+            CountDownLatch done = new CountDownLatch(workers);
+            synchronized (this) {
+                for (int w = 0; w < workers; w++) {
+                    Worker worker = new Worker(w, pool, firstOrderId + w * orderRange, orderRange,
+                            firstOrderItemId + w * itemRange, itemRange, deadline, done);
+                    threads.add(new Thread(worker, "ingest-" + w));
+                }
+                for (Thread thread : threads) {
+                    thread.start();
+                }
+            }
+            // Print the totals and close the connections on SIGINT / SIGTERM too
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+            long lastNanos = startNanos;
+            long lastCommitted = 0;
+            while (!done.await(reportSec, TimeUnit.SECONDS)) {
+                long now = System.nanoTime();
+                long total = committed.sum();
+                Histogram[] interval = drain();
+                report("interval", total - lastCommitted, (now - lastNanos) / 1e9, interval[0], interval[1]);
+                lastNanos = now;
+                lastCommitted = total;
+            }
+        } finally {
+            finish();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                // Already shutting down, or the hook was never added
+            }
+        }
+    }
+
+    /**
+     * Stop the workers, print the run totals and close the connections; only the first call does anything.
+     */
+    private synchronized void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            try {
+                // A worker blocked in the driver may not notice the interrupt; do not hang the shutdown on it
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!threads.isEmpty()) {
+            drain();
+            report("TOTAL", committed.sum(), (System.nanoTime() - startNanos) / 1e9,
+                    totalCommitLatency, totalOrderLatency);
+        }
+        if (pool != null) {
+            for (Connection connection : pool) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    System.err.println("Cannot close connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private synchronized Histogram[] drain() {
+        Histogram commit = commitLatency.getIntervalHistogram();
+        Histogram order = orderLatency.getIntervalHistogram();
+        totalCommitLatency.add(commit);
+        totalOrderLatency.add(order);
+        return new Histogram[]{commit, order};
+    }
+
+    private void report(String label, long orders, double seconds, Histogram commit, Histogram order) {
+        System.out.printf("%s: %d orders in %.1f s = %.1f orders/s (target %.1f), failed=%d%n"
+                        + "  commit latency us p50=%d p99=%d p99.9=%d max=%d%n"
+                        + "  order latency us  p50=%d p99=%d p99.9=%d max=%d%n",
+                label, orders, seconds, orders / Math.max(seconds, 1e-9), rate, failed.sum(),
+                commit.getValueAtPercentile(50), commit.getValueAtPercentile(99),
+                commit.getValueAtPercentile(99.9), commit.getMaxValue(),
+                order.getValueAtPercentile(50), order.getValueAtPercentile(99),
+                order.getValueAtPercentile(99.9), order.getMaxValue());
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+        private final BlockingQueue<Connection> pool;
+        private final int lastOrderId;
+        private final int lastOrderItemId;
+        private final long deadline;
+        private final CountDownLatch done;
+        private final SplittableRandom random = new SplittableRandom();
+        private int orderId;
+        private int orderItemId;
+
+        Worker(int index, BlockingQueue<Connection> pool, int firstOrderId, int orderRange,
+               int firstOrderItemId, int itemRange, long deadline, CountDownLatch done) {
+            this.index = index;
+            this.pool = pool;
+            this.orderId = firstOrderId;
+            this.lastOrderId = firstOrderId + orderRange - 1;
+            this.orderItemId = firstOrderItemId;
+            this.lastOrderItemId = firstOrderItemId + itemRange - 1;
+            this.deadline = deadline;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            long intervalNanos = (long) (1e9 * workers / rate);
+            // Stagger the workers so their sends do not line up
+            long next = System.nanoTime() + intervalNanos * index / workers;
+            try {
+                while (!Thread.currentThread().isInterrupted() && next < deadline) {
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    long scheduled = next;
+                    next += intervalNanos;
+                    if (orderId > lastOrderId || orderItemId + 5 > lastOrderItemId) {
+                        System.err.println("Worker " + index + " ran out of ids");
+                        break;
+                    }
+                    Connection connection = pool.take();
+                    try {
+                        insertOrder(connection, scheduled);
+                    } finally {
+                        // Never blocks, the pool has room for every connection
+                        pool.offer(connection);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void insertOrder(Connection connection, long scheduledNanos) {
+            int customerID = 1 + random.nextInt(customerIdMax);
+            Timestamp orderDate = new Timestamp(System.currentTimeMillis());
+            int numberOfItems = 1 + random.nextInt(5);
+            long start = System.nanoTime();
+            try {
+                connection.setAutoCommit(false);
+                try (PreparedStatement orderStatement = connection.prepareStatement(INSERT_ORDER_SQL);
+                     PreparedStatement itemStatement = connection.prepareStatement(INSERT_ORDER_ITEM_SQL)) {
+                    orderStatement.setInt(1, orderId);
+                    orderStatement.setInt(2, customerID);
+                    orderStatement.setTimestamp(3, orderDate);
+                    orderStatement.setString(4, random.nextBoolean() ? "Completed" : "Pending");
+                    orderStatement.executeUpdate();
+                    for (int i = 0; i < numberOfItems; i++) {
+                        itemStatement.setInt(1, orderItemId + i);
+                        itemStatement.setInt(2, orderId);
+                        itemStatement.setInt(3, 1 + random.nextInt(productIdMax));
+                        itemStatement.setInt(4, 1 + random.nextInt(10));
+                        itemStatement.addBatch();
+                    }
+                    itemStatement.executeBatch();
+                    connection.commit();
+                }
+                long end = System.nanoTime();
+                commitLatency.recordValue(TimeUnit.NANOSECONDS.toMicros(end - start));
+                orderLatency.recordValue(TimeUnit.NANOSECONDS.toMicros(end - scheduledNanos));
+                committed.increment();
+                writeTimeline(orderId, customerID, orderDate.getTime());
+            } catch (SQLException e) {
+                failed.increment();
+                System.err.println("Order " + orderId + " failed: " + e.getMessage());
+                try {
+                    connection.rollback();
+                } catch (SQLException rollback) {
+                    e.addSuppressed(rollback);
+                }
+            } finally {
+                // Ids of failed orders are skipped too, so a retry never collides with a partial insert
+                orderId++;
+                orderItemId += numberOfItems;
+            }
+        }
+
+        private void writeTimeline(int orderId, int customerId, long orderMillis) {
+            if (timeline == null) {
+                return;
+            }
+            synchronized (timeline) {
+                try {
+                    timeline.write(orderId + "," + customerId + "," + orderMillis + "\n");
+                    timeline.flush();
+                } catch (IOException e) {
+                    System.err.println("Cannot write the order timeline: " + e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk loads the seed tables with PostgreSQL's COPY protocol (SEED_MODE=copy).
+ *
+ * Each table's CSV, header line included, is streamed straight into COPY ... FROM STDIN, so rows are
+ * never held in memory and PostgreSQL parses the CSV, quotes included. Tables are loaded in phases that
+ * respect the foreign keys: the tables of one phase load in parallel, each on its own connection, and
+ * a phase starts once the previous one has committed. Each COPY is one transaction.
+ */
+public class CopyLoader {
+
+    /**
+     * Writes one table's rows as CSV, starting with a header line.
+     */
+    public interface CsvSource {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    public static final class Table {
+        final String name;
+        final String columns;
+        final CsvSource source;
+
+        public Table(String name, String columns, CsvSource source) {
+            this.name = name;
+            this.columns = columns;
+            this.source = source;
+        }
+    }
+
+    /**
+     * A CSV file from the classpath, copied through unchanged.
+     */
+    public static CsvSource resource(String fileName) {
+        return out -> {
+            try (InputStream in = CopyLoader.class.getClassLoader().getResourceAsStream(fileName)) {
+                if (in == null) {
+                    throw new FileNotFoundException("File not found: " + fileName);
+                }
+                in.transferTo(out);
+            }
+        };
+    }
+
+    /**
+     * The sample CSV resources: products, customers and addresses, then orders, then order_items.
+     */
+    public static List<List<Table>> samplePhases() {
+        List<List<Table>> phases = new ArrayList<>();
+        phases.add(List.of(
+                new Table("products", DataFeeder.PRODUCT_COLUMNS, resource("products_sample_data.csv")),
+                new Table("customers", DataFeeder.CUSTOMER_COLUMNS, resource("customers_sample_data.csv")),
+                new Table("addresses", DataFeeder.ADDRESS_COLUMNS, resource("address_sample_data.csv"))));
+        phases.add(List.of(new Table("orders", DataFeeder.ORDER_COLUMNS, resource("orders_sample_data.csv"))));
+        phases.add(List.of(
+                new Table("order_items", DataFeeder.ORDER_ITEM_COLUMNS, resource("order_items_sample_data.csv"))));
+        return phases;
+    }
+
+    /**
+     * Load the phases in order, the tables within a phase in parallel.
+     */
+    public static void load(String dbUrl, Properties connectionProperties, List<List<Table>> phases) throws SQLException {
+        long start = System.nanoTime();
+        long rows = 0;
+        for (List<Table> phase : phases) {
+            ExecutorService executor = Executors.newFixedThreadPool(phase.size());
+            try {
+                List<Future<Long>> loads = new ArrayList<>();
+                for (Table table : phase) {
+                    loads.add(executor.submit(() -> copy(dbUrl, connectionProperties, table)));
+                }
+                for (Future<Long> load : loads) {
+                    rows += load.get();
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof SQLException) {
+                    throw (SQLException) e.getCause();
+                }
+                throw new SQLException("COPY failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while loading seed data", e);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Seeded %d rows with COPY in %.3f s (%.0f rows/s)%n", rows, seconds,
+                rows / Math.max(seconds, 1e-9));
+    }
+
+    private static long copy(String dbUrl, Properties connectionProperties, Table table) throws SQLException {
+        long start = System.nanoTime();
+        String copySQL = "COPY " + table.name + " (" + table.columns + ") FROM STDIN WITH (FORMAT csv, HEADER true)";
+        long rows;
+        try (Connection connection = DriverManager.getConnection(dbUrl, connectionProperties)) {
+            PGCopyOutputStream out = new PGCopyOutputStream(connection.unwrap(PGConnection.class), copySQL, 1 << 16);
+            try {
+                table.source.writeTo(out);
+                rows = out.endCopy();
+            } catch (IOException | RuntimeException e) {
+                // Closing would end the COPY and commit the rows written so far
+                if (out.isActive()) {
+                    out.cancelCopy();
+                }
+                throw new SQLException("COPY into " + table.name + " failed", e);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Copied %d rows into %s in %.3f s (%.0f rows/s)%n", rows, table.name, seconds,
+                rows / Math.max(seconds, 1e-9));
+        return rows;
+    }
+}
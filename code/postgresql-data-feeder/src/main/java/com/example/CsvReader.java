@@ -0,0 +1,239 @@
+package com.example;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming CSV reader with a reusable row cursor.
+ *
+ * Records are read one at a time with {@link #next()}; the current record's fields stay in one shared
+ * char buffer and are only turned into values when asked for, with {@link #getInt} and {@link #getLong}
+ * parsing the digits in place. Memory use depends on the longest record, not on the file size.
+ *
+ * Fields follow RFC 4180: a field in double quotes may contain commas, line breaks and doubled quotes
+ * ({@code ""}). Unquoted fields are trimmed, quoted fields are taken as written. Lines may end in
+ * {@code \n} or {@code \r\n}, and blank lines are skipped.
+ */
+public class CsvReader implements AutoCloseable {
+
+    private final Reader in;
+    private final char[] buffer = new char[1 << 16];
+    private int position;
+    private int limit;
+
+    private char[] chars = new char[256];
+    private int length;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int columns;
+    private long record;
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * A reader over a UTF-8 CSV file on the classpath.
+     */
+    public static CsvReader resource(String fileName) throws FileNotFoundException {
+        InputStream stream = CsvReader.class.getClassLoader().getResourceAsStream(fileName);
+        if (stream == null) {
+            throw new FileNotFoundException("File not found: " + fileName);
+        }
+        return new CsvReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Advance to the next record; false at the end of the input.
+     */
+    public boolean next() throws IOException {
+        columns = 0;
+        length = 0;
+        int c = read();
+        while (c == '\n' || c == '\r') {
+            c = read();
+        }
+        if (c == -1) {
+            return false;
+        }
+        record++;
+        while (true) {
+            int start = length;
+            while (c == ' ' || c == '\t') {
+                append(c);
+                c = read();
+            }
+            int end;
+            if (c == '"') {
+                length = start;
+                while (true) {
+                    c = read();
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field in record " + record);
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    append(c);
+                }
+                end = length;
+                while (c == ' ' || c == '\t') {
+                    c = read();
+                }
+                if (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    throw new IOException("Unexpected '" + (char) c + "' after quoted field in record " + record);
+                }
+            } else {
+                while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    append(c);
+                    c = read();
+                }
+                end = length;
+                while (end > start && (chars[end - 1] == ' ' || chars[end - 1] == '\t')) {
+                    end--;
+                }
+                while (start < end && (chars[start] == ' ' || chars[start] == '\t')) {
+                    start++;
+                }
+            }
+            addField(start, end);
+            if (c != ',') {
+                break;
+            }
+            c = read();
+        }
+        if (c == '\r') {
+            c = read();
+            if (c != '\n' && c != -1) {
+                position--;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of fields in the current record.
+     */
+    public int columnCount() {
+        return columns;
+    }
+
+    /**
+     * 1-based number of the current record, counting the header.
+     */
+    public long recordNumber() {
+        return record;
+    }
+
+    public boolean isEmpty(int column) {
+        check(column);
+        return starts[column] == ends[column];
+    }
+
+    public String getString(int column) {
+        check(column);
+        return new String(chars, starts[column], ends[column] - starts[column]);
+    }
+
+    public int getInt(int column) {
+        long value = getLong(column);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw invalid(column, "int");
+        }
+        return (int) value;
+    }
+
+    public long getLong(int column) {
+        check(column);
+        int i = starts[column];
+        int end = ends[column];
+        boolean negative = i < end && chars[i] == '-';
+        if (negative || (i < end && chars[i] == '+')) {
+            i++;
+        }
+        if (i == end || end - i > 18) {
+            throw invalid(column, "long");
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalid(column, "long");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    public double getDouble(int column) {
+        try {
+            return Double.parseDouble(getString(column));
+        } catch (NumberFormatException e) {
+            throw invalid(column, "double");
+        }
+    }
+
+    /**
+     * The current record's fields as strings, e.g. for a header.
+     */
+    public String[] toArray() {
+        String[] values = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            values[i] = getString(i);
+        }
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private void append(int c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, length * 2);
+        }
+        chars[length++] = (char) c;
+    }
+
+    private void addField(int start, int end) {
+        if (columns == starts.length) {
+            starts = Arrays.copyOf(starts, columns * 2);
+            ends = Arrays.copyOf(ends, columns * 2);
+        }
+        starts[columns] = start;
+        ends[columns] = end;
+        columns++;
+    }
+
+    private void check(int column) {
+        if (column < 0 || column >= columns) {
+            throw new IndexOutOfBoundsException("Record " + record + " has " + columns + " fields, no field " + column);
+        }
+    }
+
+    private NumberFormatException invalid(int column, String type) {
+        return new NumberFormatException("Record " + record + " field " + column + " is not a valid " + type
+                + ": '" + getString(column) + "'");
+    }
+}
@@ -2,9 +2,7 @@ package com.example;
 
 import java.io.*;
 import java.sql.*;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.time.LocalDateTime;
 
 public class DataFeeder {
@@ -14,8 +12,21 @@ public class DataFeeder {
     private static final int PRODUCT_ID_MIN = 1;
     private static final int PRODUCT_ID_MAX = 290;
 
+    // Id ranges used by the continuous feed; widened when a generated dataset is seeded
+    private static int customerIdMax = CUSTOMER_ID_MAX;
+    private static int productIdMax = PRODUCT_ID_MAX;
+    private static int firstOrderId = 3000;
+    private static int firstOrderItemId = 9000;
+
     public static final int  INGESTION_INTERVAL = 1000;
 
+    // Seed table columns, in the order of the sample CSV files
+    static final String CUSTOMER_COLUMNS = "CustomerID, CustomerName, Email, Segment, shipping_address_id, billing_address_id";
+    static final String ADDRESS_COLUMNS = "AddressID, Street, City, State, PostalCode, Country";
+    static final String PRODUCT_COLUMNS = "ProductID, Brand, ProductName, Category, Description, Color, Size, Price, Stock";
+    static final String ORDER_COLUMNS = "OrderID, CustomerID, OrderDate, Status";
+    static final String ORDER_ITEM_COLUMNS = "OrderItemID, OrderID, ProductID, Quantity";
+
 
     public static void main(String[] args) {
         Properties properties = getProperties();
@@ -24,53 +35,100 @@ public class DataFeeder {
         String dbUser = properties.getProperty("db.user");
         String dbPassword = properties.getProperty("db.password");
 
-        // Load data from three different CSV files
-        List<String[]> customerData = readDataFromCSV("customers_sample_data.csv");
-        List<String[]> addressData = readDataFromCSV("address_sample_data.csv");
-        List<String[]> productData = readDataFromCSV("products_sample_data.csv");
-        List<String[]> orderData = readDataFromCSV("orders_sample_data.csv");
-        List<String[]> orderItemData = readDataFromCSV("order_items_sample_data.csv");
-
-        String insertCustomerSQL = "INSERT INTO customers (CustomerID, CustomerName, Email, Segment, shipping_address_id, billing_address_id) VALUES (?, ?, ?, ?, ?, ?)";
-        String insertAddressSQL = "INSERT INTO addresses (AddressID, Street, City, State, PostalCode, Country) VALUES (?, ?, ?, ?, ?, ?)";
-        String insertProductSQL = "INSERT INTO products (ProductID,Brand,ProductName,Category,Description,Color,Size,Price,Stock) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        String insertOrderSQL = "INSERT INTO orders (OrderID, CustomerID, OrderDate, Status)VALUES (?, ?, ?, ?)";
-        String insertOrderItemsSQL = "INSERT INTO order_items (OrderItemID, OrderID, ProductID, Quantity) VALUES (?, ?, ?, ?)";
-
-
-        List<String[]> ordersData = generateOrderData();
-        List<String[]> orderItemsData = generateOrderItemsData();
-
+        // SEED_SCALE=<factor> seeds a generated dataset of that size instead of the sample CSVs
+        String seedScale = System.getenv("SEED_SCALE");
+        DatasetGenerator dataset = seedScale == null || seedScale.trim().isEmpty() ? null
+                : new DatasetGenerator(Double.parseDouble(seedScale.trim()), getEnvLong("SEED_RANDOM", 42));
+        if (dataset != null) {
+            System.out.println("Generating scale factor " + seedScale.trim() + ": " + dataset);
+            // Continuous orders refer to the generated rows and start after the generated ids
+            customerIdMax = dataset.customers;
+            productIdMax = dataset.products;
+            firstOrderId = Math.max(firstOrderId, dataset.orders + 1);
+            firstOrderItemId = Math.max(firstOrderItemId, dataset.orderItems + 1);
+        }
 
-        try (Connection connection = DriverManager.getConnection(dbUrl, dbUser, dbPassword)) {
-            insertCustomerData(connection, insertCustomerSQL, customerData);
-            insertAddressData(connection, insertAddressSQL, addressData);
-            insertProductData(connection, insertProductSQL, productData);
-            insertOrderData(connection, insertOrderSQL, orderData);
-            insertOrderItemsData(connection, insertOrderItemsSQL, orderItemData);
-            insertDataContinuously(connection);
+        // Lets pgjdbc rewrite the seed batches into multi-row INSERTs (SEED_REWRITE_BATCHED=false to compare)
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("user", dbUser);
+        connectionProperties.setProperty("password", dbPassword);
+        connectionProperties.setProperty("reWriteBatchedInserts",
+                String.valueOf(!"false".equalsIgnoreCase(System.getenv("SEED_REWRITE_BATCHED"))));
+
+        // SEED_MODE=insert (default) uses batched INSERTs, SEED_MODE=copy streams the CSVs through COPY
+        String seedMode = System.getenv("SEED_MODE") == null ? "insert" : System.getenv("SEED_MODE").trim();
+        try (Connection connection = DriverManager.getConnection(dbUrl, connectionProperties)) {
+            if ("copy".equalsIgnoreCase(seedMode)) {
+                CopyLoader.load(dbUrl, connectionProperties, dataset != null
+                        ? dataset.phases(getEnvInt("SEED_CHUNKS", Runtime.getRuntime().availableProcessors()))
+                        : CopyLoader.samplePhases());
+            } else if ("insert".equalsIgnoreCase(seedMode)) {
+                // Stream the sample CSV files or the generated tables, one record at a time
+                try (CsvReader customerData = seedReader(dataset, DatasetGenerator.Table.CUSTOMERS, "customers_sample_data.csv");
+                     CsvReader addressData = seedReader(dataset, DatasetGenerator.Table.ADDRESSES, "address_sample_data.csv");
+                     CsvReader productData = seedReader(dataset, DatasetGenerator.Table.PRODUCTS, "products_sample_data.csv");
+                     CsvReader orderData = seedReader(dataset, DatasetGenerator.Table.ORDERS, "orders_sample_data.csv");
+                     CsvReader orderItemData = seedReader(dataset, DatasetGenerator.Table.ORDER_ITEMS, "order_items_sample_data.csv")) {
+                    insertCustomerData(connection, insertSQL("customers", CUSTOMER_COLUMNS), customerData);
+                    insertAddressData(connection, insertSQL("addresses", ADDRESS_COLUMNS), addressData);
+                    insertProductData(connection, insertSQL("products", PRODUCT_COLUMNS), productData);
+                    insertOrderData(connection, insertSQL("orders", ORDER_COLUMNS), orderData);
+                    insertOrderItemsData(connection, insertSQL("order_items", ORDER_ITEM_COLUMNS), orderItemData);
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown SEED_MODE: " + seedMode);
+            }
+            insertDataContinuously(connection, dbUrl, connectionProperties);
 
 
-        } catch (SQLException e) {
+        } catch (SQLException | IOException e) {
             e.printStackTrace();
         }
     }
 
 
 
-    private static void insertDataContinuously(Connection connection) throws SQLException {
+    /**
+     * Inserts one order with its items every INGESTION_INTERVAL ms. When ORDER_TIMELINE_FILE is set, each
+     * committed order is also appended to that file as "orderId,customerId,orderEpochMillis", so the
+     * payments app (PRODUCER_MODE=timeline) can send payments that match these orders.
+     * When CONTINUOUS_RATE is set, orders are inserted at that rate by {@link ContinuousIngestion} instead.
+     */
+    private static void insertDataContinuously(Connection connection, String dbUrl, Properties connectionProperties)
+            throws SQLException {
+        String timelineFile = System.getenv("ORDER_TIMELINE_FILE");
+        try (BufferedWriter timeline = timelineFile == null || timelineFile.trim().isEmpty() ? null
+                : new BufferedWriter(new FileWriter(timelineFile.trim(), true))) {
+            if (timeline != null) {
+                System.out.println("Writing the order timeline to " + timelineFile.trim());
+            }
+            String rate = System.getenv("CONTINUOUS_RATE");
+            if (rate != null && !rate.trim().isEmpty()) {
+                new ContinuousIngestion(dbUrl, connectionProperties, timeline, customerIdMax, productIdMax,
+                        firstOrderId, firstOrderItemId).run();
+            } else {
+                insertDataContinuously(connection, timeline);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new SQLException("Cannot write ORDER_TIMELINE_FILE " + timelineFile, e);
+        }
+    }
+
+    private static void insertDataContinuously(Connection connection, BufferedWriter timeline) throws SQLException, IOException {
         String insertOrderSQL = "INSERT INTO orders (OrderID, CustomerID, OrderDate, Status) VALUES (?, ?, ?, ?)";
         String insertOrderItemSQL = "INSERT INTO order_items (OrderItemID, OrderID, ProductID, Quantity) VALUES (?, ?, ?, ?)";
         Random random = new Random();
-        int orderID = 3000;
-        int orderItemID = 9000;
+        int orderID = firstOrderId;
+        int orderItemID = firstOrderItemId;
 
         while (true) {
+            int customerID = CUSTOMER_ID_MIN + random.nextInt(customerIdMax - CUSTOMER_ID_MIN + 1);
+            LocalDateTime now = LocalDateTime.now();
+            Timestamp orderDate = Timestamp.valueOf(now);
             // Insert Order
             try (PreparedStatement orderStatement = connection.prepareStatement(insertOrderSQL)) {
-                int customerID = CUSTOMER_ID_MIN + random.nextInt(CUSTOMER_ID_MAX - CUSTOMER_ID_MIN + 1);
-                LocalDateTime now = LocalDateTime.now();
-                Timestamp orderDate = Timestamp.valueOf(now);
                 String status = random.nextBoolean() ? "Completed" : "Pending";
                 orderStatement.setInt(1, orderID);
                 orderStatement.setInt(2, customerID);
@@ -85,7 +143,7 @@ public class DataFeeder {
             try (PreparedStatement orderItemStatement = connection.prepareStatement(insertOrderItemSQL)) {
                 int numberOfItems = 1 + random.nextInt(5); // Random number of order items between 1 and 5
                 for (int i = 0; i < numberOfItems; i++) {
-                    int productID = PRODUCT_ID_MIN + random.nextInt(PRODUCT_ID_MAX - PRODUCT_ID_MIN + 1);
+                    int productID = PRODUCT_ID_MIN + random.nextInt(productIdMax - PRODUCT_ID_MIN + 1);
                     int quantity = 1 + random.nextInt(10);
                     orderItemStatement.setInt(1, orderItemID++);
                     orderItemStatement.setInt(2, orderID);
@@ -96,6 +154,12 @@ public class DataFeeder {
                 }
             }
 
+            // The order is committed (auto-commit), so payments may now refer to it
+            if (timeline != null) {
+                timeline.write(orderID + "," + customerID + "," + orderDate.getTime() + "\n");
+                timeline.flush();
+            }
+
             orderID++; // Increment orderID for the next order
 
             try {
@@ -107,6 +171,22 @@ public class DataFeeder {
         }
     }
 
+    /**
+     * Read an optional integer environment variable, falling back to the given default when unset or empty.
+     */
+    static int getEnvInt(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Read an optional long environment variable, falling back to the given default when unset or empty.
+     */
+    static long getEnvLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : Long.parseLong(value.trim());
+    }
+
     private static Properties getProperties() {
         Properties properties = new Properties();
 
@@ -128,105 +208,117 @@ public class DataFeeder {
         return properties;
     }
 
-    private static List<String[]> readDataFromCSV(String fileName) {
-        List<String[]> data = new ArrayList<>();
-        try (InputStream inputStream = DataFeeder.class.getClassLoader().getResourceAsStream(fileName)) {
-            if (inputStream != null) {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-                    String line;
-                    // Ignore the header line.
-                    reader.readLine();
-                    while ((line = reader.readLine()) != null) {
-                        // Split the line into values using comma as delimiter
-                        String[] row = line.split(",");
-                        data.add(row);
-                    }
-                }
-            } else {
-                System.out.println("File not found: " + fileName);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    private static CsvReader seedReader(DatasetGenerator dataset, DatasetGenerator.Table table, String sampleFile)
+            throws IOException {
+        return dataset != null ? DatasetGenerator.reader(dataset.source(table)) : CsvReader.resource(sampleFile);
+    }
 
-        return data;
+    private static String insertSQL(String table, String columns) {
+        String placeholders = String.join(", ", Collections.nCopies(columns.split(",").length, "?"));
+        return "INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")";
     }
 
+    /**
+     * Binds the current CSV record to the parameters of an insert statement.
+     */
+    private interface RowBinder {
+        void bind(PreparedStatement preparedStatement, CsvReader row) throws SQLException;
+    }
 
-    public static void insertCustomerData(Connection connection, String insertSQL, List<String[]> data) throws SQLException {
+    /**
+     * Inserts all records after the header line in one transaction, sending them in batches of
+     * SEED_BATCH_SIZE (default 1000) statements. With reWriteBatchedInserts on the connection, pgjdbc
+     * turns each batch into multi-row INSERTs. The connection is returned to auto-commit afterwards; on failure the table's rows are
+     * rolled back.
+     */
+    private static void insertBatched(Connection connection, String table, String insertSQL, CsvReader data,
+                                      RowBinder binder) throws SQLException, IOException {
+        int batchSize = Math.max(1, getEnvInt("SEED_BATCH_SIZE", 1000));
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long rows = 0;
         try (PreparedStatement preparedStatement = connection.prepareStatement(insertSQL)) {
-            for (String[] row : data) {
-                preparedStatement.setInt(1, Integer.parseInt(row[0].trim())); // CustomerID
-                preparedStatement.setString(2, row[1].trim()); // CustomerName
-                preparedStatement.setString(3, row[2].trim()); // Email
-                preparedStatement.setString(4, row[3].trim()); // Segment
-                preparedStatement.setString(5, row[4].trim()); // shipping_address_id
-                preparedStatement.setString(6, row[5].trim()); // billing_address_id
-                int rowsInserted = preparedStatement.executeUpdate();
-                // Handle insertion result
+            int pending = 0;
+            data.next(); // header
+            while (data.next()) {
+                binder.bind(preparedStatement, data);
+                rows++;
+                preparedStatement.addBatch();
+                if (++pending == batchSize) {
+                    preparedStatement.executeBatch();
+                    pending = 0;
+                }
             }
+            if (pending > 0) {
+                preparedStatement.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
         }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Seeded %d rows into %s in %.3f s (%.0f rows/s, batch size %d)%n",
+                rows, table, seconds, rows / Math.max(seconds, 1e-9), batchSize);
     }
 
-    public static void insertAddressData(Connection connection, String insertSQL, List<String[]> data) throws SQLException {
-        try (PreparedStatement preparedStatement = connection.prepareStatement(insertSQL)) {
-            for (String[] row : data) {
-                preparedStatement.setString(1, row[0].trim()); //AddressID
-                preparedStatement.setString(2, row[1].trim()); // Street
-                preparedStatement.setString(3, row[2].trim()); // City
-                preparedStatement.setString(4, row[3].trim()); // State
-                preparedStatement.setString(5, row[4].trim()); // PostalCode
-                preparedStatement.setString(6, row[5].trim()); // Country
-                int rowsInserted = preparedStatement.executeUpdate();
-                // Handle insertion result
-            }
-        }
+    public static void insertCustomerData(Connection connection, String insertSQL, CsvReader data) throws SQLException, IOException {
+        insertBatched(connection, "customers", insertSQL, data, (preparedStatement, row) -> {
+            preparedStatement.setInt(1, row.getInt(0)); // CustomerID
+            preparedStatement.setString(2, row.getString(1)); // CustomerName
+            preparedStatement.setString(3, row.getString(2)); // Email
+            preparedStatement.setString(4, row.getString(3)); // Segment
+            preparedStatement.setString(5, row.getString(4)); // shipping_address_id
+            preparedStatement.setString(6, row.getString(5)); // billing_address_id
+        });
     }
 
+    public static void insertAddressData(Connection connection, String insertSQL, CsvReader data) throws SQLException, IOException {
+        insertBatched(connection, "addresses", insertSQL, data, (preparedStatement, row) -> {
+            preparedStatement.setString(1, row.getString(0)); //AddressID
+            preparedStatement.setString(2, row.getString(1)); // Street
+            preparedStatement.setString(3, row.getString(2)); // City
+            preparedStatement.setString(4, row.getString(3)); // State
+            preparedStatement.setString(5, row.getString(4)); // PostalCode
+            preparedStatement.setString(6, row.getString(5)); // Country
+        });
+    }
 
-    public static void insertProductData(Connection connection, String insertSQL, List<String[]> data) throws SQLException {
-        try (PreparedStatement preparedStatement = connection.prepareStatement(insertSQL)) {
-            for (String[] row : data) {
-                preparedStatement.setInt(1, Integer.parseInt(row[0].trim())); // ProductID
-                preparedStatement.setString(2, row[1].trim()); // Brand
-                preparedStatement.setString(3, row[2].trim()); // ProductName
-                preparedStatement.setString(4, row[3].trim()); // Category
-                preparedStatement.setString(5, row[4].trim()); // Description
-                preparedStatement.setString(6, row[5].trim()); // Color
-                preparedStatement.setString(7, row[6].trim()); // Size
-                preparedStatement.setDouble(8, Double.parseDouble(row[7].trim())); // Price
-                preparedStatement.setInt(9, Integer.parseInt(row[8].trim())); // Stock
-                int rowsInserted = preparedStatement.executeUpdate();
-                // Handle insertion result
-            }
-        }
+
+    public static void insertProductData(Connection connection, String insertSQL, CsvReader data) throws SQLException, IOException {
+        insertBatched(connection, "products", insertSQL, data, (preparedStatement, row) -> {
+            preparedStatement.setInt(1, row.getInt(0)); // ProductID
+            preparedStatement.setString(2, row.getString(1)); // Brand
+            preparedStatement.setString(3, row.getString(2)); // ProductName
+            preparedStatement.setString(4, row.getString(3)); // Category
+            preparedStatement.setString(5, row.getString(4)); // Description
+            preparedStatement.setString(6, row.getString(5)); // Color
+            preparedStatement.setString(7, row.getString(6)); // Size
+            preparedStatement.setDouble(8, row.getDouble(7)); // Price
+            preparedStatement.setInt(9, row.getInt(8)); // Stock
+        });
     }
 
 
-    public static void insertOrderData(Connection connection, String insertSQL, List<String[]> data) throws SQLException {
-        try (PreparedStatement preparedStatement = connection.prepareStatement(insertSQL)) {
-            for (String[] row : data) {
-                preparedStatement.setInt(1, Integer.parseInt(row[0].trim())); // OrderID
-                preparedStatement.setInt(2, Integer.parseInt(row[1].trim())); // CustomerID
-                preparedStatement.setTimestamp(3, Timestamp.valueOf(row[2].trim()));// OrderDate
-                preparedStatement.setString(4, row[3].trim()); // Status
-                int rowsInserted = preparedStatement.executeUpdate();
-                // Handle insertion result
-            }
-        }
+    public static void insertOrderData(Connection connection, String insertSQL, CsvReader data) throws SQLException, IOException {
+        insertBatched(connection, "orders", insertSQL, data, (preparedStatement, row) -> {
+            preparedStatement.setInt(1, row.getInt(0)); // OrderID
+            preparedStatement.setInt(2, row.getInt(1)); // CustomerID
+            preparedStatement.setTimestamp(3, Timestamp.valueOf(row.getString(2)));// OrderDate
+            preparedStatement.setString(4, row.getString(3)); // Status
+        });
     }
 
-    public static void insertOrderItemsData(Connection connection, String insertSQL, List<String[]> data) throws SQLException {
-        try (PreparedStatement preparedStatement = connection.prepareStatement(insertSQL)) {
-            for (String[] row : data) {
-                preparedStatement.setInt(1, Integer.parseInt(row[0].trim())); // OrderItemID
-                preparedStatement.setInt(2, Integer.parseInt(row[1].trim())); // OrderID
-                preparedStatement.setInt(3, Integer.parseInt(row[2].trim())); // ProductID
-                preparedStatement.setInt(4, Integer.parseInt(row[3].trim())); // Quantity
-                int rowsInserted = preparedStatement.executeUpdate();
-                // Handle insertion result, if necessary
-            }
-        }
+    public static void insertOrderItemsData(Connection connection, String insertSQL, CsvReader data) throws SQLException, IOException {
+        insertBatched(connection, "order_items", insertSQL, data, (preparedStatement, row) -> {
+            preparedStatement.setInt(1, row.getInt(0)); // OrderItemID
+            preparedStatement.setInt(2, row.getInt(1)); // OrderID
+            preparedStatement.setInt(3, row.getInt(2)); // ProductID
+            preparedStatement.setInt(4, row.getInt(3)); // Quantity
+        });
     }
 
 
@@ -288,36 +380,4 @@ public class DataFeeder {
             }
         }
     }
-
-    private static List<String[]> generateOrderData() {
-        List<String[]> data = new CopyOnWriteArrayList<>();
-        Random random = new Random();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-        for (int i = 1; i <= 1000; i++) {
-            int orderID = i;
-            int customerID = CUSTOMER_ID_MIN + random.nextInt(CUSTOMER_ID_MAX - CUSTOMER_ID_MIN + 1);
-            String orderDate = LocalDateTime.now().format(formatter);
-            String status = random.nextBoolean() ? "Completed" : "Pending";
-            data.add(new String[]{String.valueOf(orderID), String.valueOf(customerID), orderDate, status});
-        }
-
-        return data;
-    }
-
-
-    private static List<String[]> generateOrderItemsData() {
-        List<String[]> data = new CopyOnWriteArrayList<>();
-        Random random = new Random();
-
-        for (int i = 1; i <= 5000; i++) {
-            int orderItemID = i;
-            int orderID = 1 + random.nextInt(1000);
-            int productID = PRODUCT_ID_MIN + random.nextInt(PRODUCT_ID_MAX - PRODUCT_ID_MIN + 1);
-            int quantity = 1 + random.nextInt(10);
-            data.add(new String[]{String.valueOf(orderItemID), String.valueOf(orderID), String.valueOf(productID), String.valueOf(quantity)});
-        }
-
-        return data;
-    }
 }
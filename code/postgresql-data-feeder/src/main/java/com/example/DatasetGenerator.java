@@ -0,0 +1,297 @@
+package com.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic retail dataset at a given scale factor (SEED_SCALE), instead of the sample CSVs.
+ *
+ * SF1 has the sample's dimension sizes - 80 addresses, 50 customers, 300 products - plus 1,000 orders
+ * and 5,000 order items; every table grows linearly with the scale factor, so SF1000 has 50,000
+ * customers and 5 million order items, and about SF20000 a million customers. All references are
+ * consistent: customers point at existing addresses, orders at customers, order items at orders and
+ * products. Emails and city names (unique in the lab schema) carry the row id.
+ *
+ * Every row is generated from its own random generator, derived from the seed (SEED_RANDOM, default
+ * 42), the table and the row id, so the data does not depend on how a table is split into chunks or
+ * which thread generates a chunk. Tables are written as CSV with a header line, for {@link CopyLoader}
+ * or, through {@link #reader}, for the batched insert path.
+ */
+public class DatasetGenerator {
+
+    static final int BASE_ADDRESSES = 80;
+    static final int BASE_CUSTOMERS = 50;
+    static final int BASE_PRODUCTS = 300;
+    static final int BASE_ORDERS = 1000;
+    static final int BASE_ORDER_ITEMS = 5000;
+
+    // A large table is split into chunks of at least this many rows, each loaded on its own connection
+    private static final int MIN_CHUNK_ROWS = 100_000;
+
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Michael", "Emily", "David", "Sarah", "James",
+            "Laura", "Robert", "Olivia", "Daniel", "Sophia", "William", "Emma", "Thomas", "Ava", "Carlos", "Mia",
+            "Ahmed", "Yuki", "Priya", "Lucas", "Chloe", "Noah", "Grace"};
+    private static final String[] LAST_NAMES = {"Doe", "Smith", "Johnson", "Brown", "Williams", "Jones", "Garcia",
+            "Miller", "Davis", "Martinez", "Lopez", "Wilson", "Anderson", "Taylor", "Thomas", "Moore", "Jackson",
+            "Martin", "Lee", "Khan", "Tanaka", "Patel", "Silva", "Clark", "Lewis"};
+    private static final String[] SEGMENTS = {"New", "Premium", "Regular"};
+    private static final String[] STREET_NAMES = {"Chelsea", "Jones", "Maple", "Oak", "Cedar", "Park", "Lake",
+            "Hill", "River", "Sunset", "Washington", "Lincoln", "Elm", "Pine", "Willow"};
+    private static final String[] STREET_SUFFIXES = {"Street", "Avenue", "Road", "Shoals", "Streets", "Lane",
+            "Drive", "Court", "Way", "Plaza"};
+    private static final String[] CITY_ROOTS = {"Anthony", "Barnes", "Clark", "Dean", "Ellis", "Fisher", "Gray",
+            "Hayes", "Irwin", "James", "Kent", "Lowe", "Mason", "North", "Owen"};
+    private static final String[] CITY_SUFFIXES = {"view", "mouth", "ville", "burgh", "port", "field", "haven",
+            "side", "stad", "ton"};
+    private static final String[] STATES = {"Alabama", "Alaska", "Arizona", "California", "Colorado", "Florida",
+            "Georgia", "Hawaii", "Illinois", "Maine", "Nevada", "New York", "Ohio", "Oregon", "Texas", "Utah",
+            "Vermont", "Virginia", "Washington", "Wisconsin"};
+    private static final String[] BRANDS = {"Levi's", "Under Armour", "Nike", "Adidas", "Zara", "H&M", "Uniqlo",
+            "Gap", "Patagonia", "Columbia", "Puma", "Ralph Lauren"};
+    private static final String[] CATEGORIES = {"Shirts", "Pants", "Jeans", "Hoodies", "Jackets", "Shorts",
+            "Shoes", "Dresses", "Skirts", "Leggings", "Coats", "Blazers", "Sandals", "Activewear", "Hats"};
+    private static final String[] ADJECTIVES = {"Classic", "Slim", "Relaxed", "Tech", "Essential", "Vintage",
+            "Performance", "Organic", "Lightweight", "Premium"};
+    private static final String[] COLORS = {"Blue", "Gray", "Black", "White", "Red", "Green", "Navy", "Beige"};
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL", "32x32", "34x32", "9", "10"};
+    private static final String[] STATUSES = {"Completed", "Pending"};
+
+    // 2024-01-01 00:00:00, orders are spread over the following year
+    private static final long ORDER_EPOCH_SECONDS = 1_704_067_200L;
+    private static final long ORDER_SPAN_SECONDS = 366L * 24 * 3600;
+    private static final DateTimeFormatter ORDER_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    final long seed;
+    final int addresses;
+    final int customers;
+    final int products;
+    final int orders;
+    final int orderItems;
+
+    public DatasetGenerator(double scaleFactor, long seed) {
+        if (scaleFactor <= 0) {
+            throw new IllegalArgumentException("SEED_SCALE must be positive, was " + scaleFactor);
+        }
+        this.seed = seed;
+        this.addresses = scale(BASE_ADDRESSES, scaleFactor);
+        this.customers = scale(BASE_CUSTOMERS, scaleFactor);
+        this.products = scale(BASE_PRODUCTS, scaleFactor);
+        this.orders = scale(BASE_ORDERS, scaleFactor);
+        this.orderItems = scale(BASE_ORDER_ITEMS, scaleFactor);
+    }
+
+    private static int scale(int base, double scaleFactor) {
+        double rows = Math.ceil(base * scaleFactor);
+        if (rows > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Scale factor " + scaleFactor + " needs more than 2^31 rows");
+        }
+        return (int) rows;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d addresses, %d customers, %d products, %d orders, %d order items",
+                addresses, customers, products, orders, orderItems);
+    }
+
+    /**
+     * COPY phases in foreign-key order, as in {@link CopyLoader#samplePhases()}; large tables are split
+     * into up to {@code chunks} parts that load in parallel.
+     */
+    public List<List<CopyLoader.Table>> phases(int chunks) {
+        List<List<CopyLoader.Table>> phases = new ArrayList<>();
+        List<CopyLoader.Table> dimensions = new ArrayList<>();
+        addChunks(dimensions, "products", DataFeeder.PRODUCT_COLUMNS, Table.PRODUCTS, products, chunks);
+        addChunks(dimensions, "customers", DataFeeder.CUSTOMER_COLUMNS, Table.CUSTOMERS, customers, chunks);
+        addChunks(dimensions, "addresses", DataFeeder.ADDRESS_COLUMNS, Table.ADDRESSES, addresses, chunks);
+        phases.add(dimensions);
+        List<CopyLoader.Table> orderTables = new ArrayList<>();
+        addChunks(orderTables, "orders", DataFeeder.ORDER_COLUMNS, Table.ORDERS, orders, chunks);
+        phases.add(orderTables);
+        List<CopyLoader.Table> itemTables = new ArrayList<>();
+        addChunks(itemTables, "order_items", DataFeeder.ORDER_ITEM_COLUMNS, Table.ORDER_ITEMS, orderItems, chunks);
+        phases.add(itemTables);
+        return phases;
+    }
+
+    private void addChunks(List<CopyLoader.Table> phase, String name, String columns, Table table, int rows, int chunks) {
+        int parts = Math.max(1, Math.min(chunks, rows / MIN_CHUNK_ROWS));
+        for (int part = 0; part < parts; part++) {
+            int from = (int) ((long) rows * part / parts) + 1;
+            int to = (int) ((long) rows * (part + 1) / parts);
+            phase.add(new CopyLoader.Table(name, columns, source(table, from, to)));
+        }
+    }
+
+    public enum Table { ADDRESSES, CUSTOMERS, PRODUCTS, ORDERS, ORDER_ITEMS }
+
+    /**
+     * All rows of a table as CSV with a header line.
+     */
+    public CopyLoader.CsvSource source(Table table) {
+        return source(table, 1, rows(table));
+    }
+
+    int rows(Table table) {
+        switch (table) {
+            case ADDRESSES:
+                return addresses;
+            case CUSTOMERS:
+                return customers;
+            case PRODUCTS:
+                return products;
+            case ORDERS:
+                return orders;
+            default:
+                return orderItems;
+        }
+    }
+
+    /**
+     * Rows {@code from} to {@code to} (inclusive, 1-based ids) of a table as CSV with a header line.
+     */
+    CopyLoader.CsvSource source(Table table, int from, int to) {
+        return out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            StringBuilder row = new StringBuilder(256);
+            writer.write(header(table));
+            for (int id = from; id <= to; id++) {
+                row.setLength(0);
+                SplittableRandom random = rowRandom(table, id);
+                switch (table) {
+                    case ADDRESSES:
+                        address(row, id, random);
+                        break;
+                    case CUSTOMERS:
+                        customer(row, id, random);
+                        break;
+                    case PRODUCTS:
+                        product(row, id, random);
+                        break;
+                    case ORDERS:
+                        order(row, id, random);
+                        break;
+                    default:
+                        orderItem(row, id, random);
+                        break;
+                }
+                writer.append(row).append('\n');
+            }
+            writer.flush();
+        };
+    }
+
+    private static String header(Table table) {
+        switch (table) {
+            case ADDRESSES:
+                return "AddressID,Street,City,State,PostalCode,Country\n";
+            case CUSTOMERS:
+                return "CustomerID,CustomerName,Email,Segment,shipping_address_id,billing_address_id\n";
+            case PRODUCTS:
+                return "ProductID,Brand,ProductName,Category,Description,Color,Size,Price,Stock\n";
+            case ORDERS:
+                return "OrderID,CustomerID,OrderDate,Status\n";
+            default:
+                return "OrderItemID,OrderID,ProductID,Quantity\n";
+        }
+    }
+
+    private SplittableRandom rowRandom(Table table, int id) {
+        return new SplittableRandom(mix(seed ^ mix(((long) table.ordinal() << 32) | id)));
+    }
+
+    /**
+     * SplitMix64 finalizer: spreads neighbouring inputs over the whole long range.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private void address(StringBuilder row, int id, SplittableRandom random) {
+        row.append('A').append(id).append(',')
+                .append(1 + random.nextInt(9999)).append(' ').append(pick(STREET_NAMES, random)).append(' ')
+                .append(pick(STREET_SUFFIXES, random)).append(',')
+                // City is unique in the lab schema
+                .append(pick(CITY_ROOTS, random)).append(pick(CITY_SUFFIXES, random)).append(' ').append(id).append(',')
+                .append(pick(STATES, random)).append(',')
+                .append(String.format(Locale.ROOT, "%05d", random.nextInt(100_000))).append(",United States");
+    }
+
+    private void customer(StringBuilder row, int id, SplittableRandom random) {
+        String first = pick(FIRST_NAMES, random);
+        String last = pick(LAST_NAMES, random);
+        row.append(id).append(',').append(first).append(' ').append(last).append(',')
+                .append(first.toLowerCase(Locale.ROOT)).append(last.toLowerCase(Locale.ROOT)).append(id)
+                .append("@example.com,")
+                .append(pick(SEGMENTS, random)).append(',')
+                .append('A').append(1 + random.nextInt(addresses)).append(',')
+                .append('A').append(1 + random.nextInt(addresses));
+    }
+
+    private void product(StringBuilder row, int id, SplittableRandom random) {
+        String category = pick(CATEGORIES, random);
+        String adjective = pick(ADJECTIVES, random);
+        int cents = 500 + random.nextInt(19_500);
+        row.append(id).append(",\"").append(pick(BRANDS, random)).append("\",\"")
+                .append(adjective).append(' ').append(category).append(' ').append(id).append("\",\"")
+                .append(category).append("\",\"")
+                .append(adjective).append(", comfortable ").append(category.toLowerCase(Locale.ROOT)).append("\",\"")
+                .append(pick(COLORS, random)).append("\",\"")
+                .append(pick(SIZES, random)).append("\",")
+                .append(cents / 100).append('.').append(cents % 100 < 10 ? "0" : "").append(cents % 100).append(',')
+                .append(random.nextInt(501));
+    }
+
+    private void order(StringBuilder row, int id, SplittableRandom random) {
+        long epochSecond = ORDER_EPOCH_SECONDS + random.nextLong(ORDER_SPAN_SECONDS);
+        row.append(id).append(',').append(1 + random.nextInt(customers)).append(',')
+                .append(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC).format(ORDER_DATE)).append(',')
+                .append(pick(STATUSES, random));
+    }
+
+    private void orderItem(StringBuilder row, int id, SplittableRandom random) {
+        row.append(id).append(',').append(1 + random.nextInt(orders)).append(',')
+                .append(1 + random.nextInt(products)).append(',').append(1 + random.nextInt(10));
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * A {@link CsvReader} over a generated table, for the batched insert path. The CSV is written by a
+     * background thread into a pipe; if generation fails the pipe is left open, so the reader fails too
+     * instead of seeing a short table.
+     */
+    public static CsvReader reader(CopyLoader.CsvSource source) throws IOException {
+        PipedInputStream in = new PipedInputStream(1 << 16);
+        OutputStream out = new PipedOutputStream(in);
+        Thread writer = new Thread(() -> {
+            try {
+                source.writeTo(out);
+                out.close();
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, "dataset-generator");
+        writer.setDaemon(true);
+        writer.start();
+        return new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+}
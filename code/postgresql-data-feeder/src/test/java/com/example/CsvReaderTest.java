@@ -0,0 +1,149 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvReaderTest {
+
+    private static List<String[]> readAll(String csv) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            while (reader.next()) {
+                records.add(reader.toArray());
+            }
+        }
+        return records;
+    }
+
+    @Test
+    void readsPlainRecordsAndTrimsUnquotedFields() throws IOException {
+        List<String[]> records = readAll("id,name\n1, Alice \n2,Bob");
+        assertEquals(3, records.size());
+        assertArrayEquals(new String[]{"id", "name"}, records.get(0));
+        assertArrayEquals(new String[]{"1", "Alice"}, records.get(1));
+        assertArrayEquals(new String[]{"2", "Bob"}, records.get(2));
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        List<String[]> records = readAll("a,,c,\n");
+        assertArrayEquals(new String[]{"a", "", "c", ""}, records.get(0));
+    }
+
+    @Test
+    void unescapesDoubledQuotesInQuotedFields() throws IOException {
+        List<String[]> records = readAll("\"say \"\"hi\"\"\",\"\"\"\",\"\"\n");
+        assertArrayEquals(new String[]{"say \"hi\"", "\"", ""}, records.get(0));
+    }
+
+    @Test
+    void keepsLineBreaksAndCommasInQuotedFields() throws IOException {
+        List<String[]> records = readAll("1,\"12 Main St,\nApt 4\r\nSpringfield\",x\n2,y,z\n");
+        assertEquals(2, records.size());
+        assertArrayEquals(new String[]{"1", "12 Main St,\nApt 4\r\nSpringfield", "x"}, records.get(0));
+        assertArrayEquals(new String[]{"2", "y", "z"}, records.get(1));
+    }
+
+    @Test
+    void ignoresWhitespaceAroundQuotedFields() throws IOException {
+        List<String[]> records = readAll("a,  \" b,c \"  ,d\n");
+        assertArrayEquals(new String[]{"a", " b,c ", "d"}, records.get(0));
+    }
+
+    @Test
+    void handlesCrLfAndBlankLines() throws IOException {
+        List<String[]> records = readAll("a,b\r\n\r\n\nc,d\r\n");
+        assertEquals(2, records.size());
+        assertArrayEquals(new String[]{"a", "b"}, records.get(0));
+        assertArrayEquals(new String[]{"c", "d"}, records.get(1));
+    }
+
+    @Test
+    void handlesCrLfSplitAcrossTheReadBuffer() throws IOException {
+        // The reader fills a 64K char buffer: put the \r at its last position and the \n at the first of the next fill
+        int bufferSize = 1 << 16;
+        char[] filler = new char[bufferSize - "x,".length() - 1];
+        Arrays.fill(filler, 'y');
+        String longField = new String(filler);
+        List<String[]> records = readAll("x," + longField + "\r\nnext,1\r\n");
+        assertEquals(2, records.size());
+        assertArrayEquals(new String[]{"x", longField}, records.get(0));
+        assertArrayEquals(new String[]{"next", "1"}, records.get(1));
+    }
+
+    @Test
+    void handlesBareCrAtTheEndOfTheReadBuffer() throws IOException {
+        int bufferSize = 1 << 16;
+        char[] filler = new char[bufferSize - "x,".length() - 1];
+        Arrays.fill(filler, 'y');
+        String longField = new String(filler);
+        List<String[]> records = readAll("x," + longField + "\rnext,1");
+        assertEquals(2, records.size());
+        assertArrayEquals(new String[]{"next", "1"}, records.get(1));
+    }
+
+    @Test
+    void failsOnUnterminatedQuote() {
+        IOException e = assertThrows(IOException.class, () -> readAll("a,b\n1,\"open\n2,x\n"));
+        assertTrue(e.getMessage().contains("record 2"), e.getMessage());
+    }
+
+    @Test
+    void failsOnTextAfterClosingQuote() {
+        assertThrows(IOException.class, () -> readAll("\"a\"b,c\n"));
+    }
+
+    @Test
+    void parsesNumbersInPlace() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("42,-7,+3,9223372036854775,1.5,abc,\n"))) {
+            assertTrue(reader.next());
+            assertEquals(42, reader.getInt(0));
+            assertEquals(-7, reader.getInt(1));
+            assertEquals(3, reader.getLong(2));
+            assertEquals(9223372036854775L, reader.getLong(3));
+            assertEquals(1.5, reader.getDouble(4));
+            assertThrows(NumberFormatException.class, () -> reader.getInt(5));
+            assertTrue(reader.isEmpty(6));
+            assertThrows(NumberFormatException.class, () -> reader.getLong(6));
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.getString(7));
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void countsRecordsIncludingTheHeader() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("h\n\n1\n2\n"))) {
+            assertTrue(reader.next());
+            assertTrue(reader.next());
+            assertTrue(reader.next());
+            assertEquals(3, reader.recordNumber());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void readsTheSampleProducts() throws IOException {
+        int rows = 0;
+        try (CsvReader reader = CsvReader.resource("products_sample_data.csv")) {
+            assertTrue(reader.next());
+            int columns = reader.columnCount();
+            while (reader.next()) {
+                assertEquals(columns, reader.columnCount(), "record " + reader.recordNumber());
+                reader.getInt(0);
+                rows++;
+            }
+        }
+        assertTrue(rows > 0);
+    }
+}